@@ -0,0 +1,36 @@
+#!/bin/bash
+# extracts the application jar into the layout the fast-startup image runs from, then makes a training run that
+# refreshes the AOT-processed context and exits, writing the classes it loaded to a CDS archive beside the jar.
+# A CDS archive is only used by the JDK build it was made with, so both steps run in the runtime base image, pinned
+# by digest, and at the same path the image runs from
+#
+# usage: ./cds_training.sh application.jar destination-directory base-image@sha256:digest
+set -euo pipefail
+
+jar="$1"
+destination="$2"
+image="$3"
+
+if [[ ! "${image}" =~ @sha256:[0-9a-f]{64}$ ]]; then
+    echo "runtime base image must be pinned by digest, got '${image}'" >&2
+    exit 1
+fi
+
+rm -rf "${destination}"
+mkdir -p "${destination}"
+destination="$(cd "${destination}" && pwd)"
+jar_name="$(basename "${jar}")"
+
+in_runtime_image() {
+    docker run --rm --network none --user "$(id -u):$(id -g)" \
+        -v "$(cd "$(dirname "${jar}")" && pwd)/${jar_name}:/build/${jar_name}:ro" \
+        -v "${destination}:/app/cds" -w /app/cds \
+        --entrypoint java "${image}" "$@"
+}
+
+in_runtime_image -Djarmode=tools -jar "/build/${jar_name}" extract --destination /app/cds
+# jib gives every file in the image the same modification time, and CDS rejects jars whose time differs from training
+find "${destination}" -name '*.jar' -exec touch -d @1 {} +
+
+in_runtime_image -XX:ArchiveClassesAtExit=application.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "${jar_name}"
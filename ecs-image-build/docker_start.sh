@@ -2,4 +2,15 @@
 
 PORT=8080
 
-exec java -jar -Dserver.port="${PORT}" "registers-delta-consumer.jar"
\ No newline at end of file
+# The SDK transport for the registers API sits on HttpURLConnection, whose keep-alive cache holds only
+# http.maxConnections idle sockets per host (default 5) and closes the rest after each call. The JDK reads these
+# properties once, when the first connection is made, and they apply to every HttpURLConnection in the process, so
+# they are set here rather than from the application. http.maxConnections follows the size of the API client pool.
+# Images started without this script can pass the same -D options through JAVA_TOOL_OPTIONS.
+HTTP_MAX_CONNECTIONS="${HTTP_MAX_CONNECTIONS:-${API_MAX_CONNECTIONS:-10}}"
+HTTP_KEEP_ALIVE_SECONDS="${HTTP_KEEP_ALIVE_SECONDS:-30}"
+
+exec java -jar -Dserver.port="${PORT}" \
+    -Dhttp.maxConnections="${HTTP_MAX_CONNECTIONS}" \
+    -Dhttp.keepAlive.time.server="${HTTP_KEEP_ALIVE_SECONDS}" \
+    "registers-delta-consumer.jar"
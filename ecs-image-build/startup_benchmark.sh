@@ -0,0 +1,57 @@
+#!/bin/bash
+# time to first record processed, for each image given, against a kafka whose registers-delta topic already holds
+# records. Every run consumes as a new group from the earliest offset, so there is always a record waiting; the time
+# is the registers.startup.first.record timer, measured from JVM start, plus the wall clock from docker run
+#
+# usage: BOOTSTRAP_SERVER_URL=host:9092 API_LOCAL_URL=http://host:8888 ./startup_benchmark.sh [-n runs] image...
+set -euo pipefail
+
+runs=5
+if [[ "${1:-}" == "-n" ]]; then
+    runs="$2"
+    shift 2
+fi
+: "${BOOTSTRAP_SERVER_URL:?BOOTSTRAP_SERVER_URL must be set}"
+: "${API_LOCAL_URL:?API_LOCAL_URL must be set}"
+port="${BENCHMARK_PORT:-18081}"
+timeout_seconds="${BENCHMARK_TIMEOUT_SECONDS:-120}"
+
+first_record_seconds() {
+    curl -sf "http://localhost:${port}/prometheus" \
+        | awk '/^registers_startup_first_record_seconds_sum/ { print $2 }'
+}
+
+# starts the image's own entrypoint with -Xshare:on, which makes the JVM exit rather than run without an archive it
+# cannot map, and stops once the context has refreshed; an image without an archive of its own checks the JDK's
+check_archive_maps() {
+    if ! docker run --rm --network none -e JAVA_TOOL_OPTIONS="-Xshare:on -Dspring.context.exit=onRefresh" \
+            "$1" > /dev/null 2>&1; then
+        echo "$1: CDS archive does not map with -Xshare:on, it was likely trained on another JDK build" >&2
+        exit 1
+    fi
+}
+
+for image in "$@"; do
+    check_archive_maps "${image}"
+    for run in $(seq 1 "${runs}"); do
+        started=$(date +%s%N)
+        container=$(docker run -d --rm --network host \
+            -e BOOTSTRAP_SERVER_URL="${BOOTSTRAP_SERVER_URL}" \
+            -e API_LOCAL_URL="${API_LOCAL_URL}" \
+            -e GROUP_ID="startup-benchmark-$(date +%s%N)" \
+            -e PORT="${port}" \
+            "${image}")
+        seconds=""
+        while [[ -z "${seconds}" && $(( ($(date +%s%N) - started) / 1000000000 )) -lt ${timeout_seconds} ]]; do
+            sleep 0.2
+            seconds=$(first_record_seconds || true)
+        done
+        wall_ms=$(( ($(date +%s%N) - started) / 1000000 ))
+        docker stop "${container}" > /dev/null
+        if [[ -z "${seconds}" ]]; then
+            echo "${image} run ${run}: no record processed within ${timeout_seconds}s" >&2
+            exit 1
+        fi
+        echo "${image} run ${run}: first record ${seconds}s after JVM start, ${wall_ms}ms after docker run"
+    done
+done
@@ -0,0 +1,62 @@
+package uk.gov.companieshouse.registers.consumer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public final class BenchmarkDeltas {
+
+    // "fixture" is registers-delta.json, any other value is the number of items per register
+    public static final String FIXTURE = "fixture";
+
+    private static final DateTimeFormatter MOVED_ON_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    private static final LocalDateTime LATEST_MOVED_ON = LocalDateTime.of(2023, 10, 30, 11, 18, 6);
+    private static final List<String> REGISTERS = List.of("directors", "secretaries",
+            "persons_with_significant_control", "members", "usual_residential_address", "llp_members",
+            "llp_usual_residential_address");
+    private static final List<String> CHIPS_DESCRIPTIONS = List.of("COMPANIES_HOUSE", "ROA", "SAIL", "UNSPECIFIED");
+
+    private BenchmarkDeltas() {
+    }
+
+    public static String payload(String size) {
+        return FIXTURE.equals(size) ? resource("/registers-delta.json") : synthetic(Integer.parseInt(size));
+    }
+
+    public static String deletePayload() {
+        return resource("/registers-delete-delta.json");
+    }
+
+    private static String synthetic(int itemsPerRegister) {
+        StringBuilder json = new StringBuilder("{\"company_number\":\"12345678\"");
+        for (String register : REGISTERS) {
+            json.append(",\"").append(register).append("\":{\"items\":[");
+            for (int i = 0; i < itemsPerRegister; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"moved_on\":\"")
+                        .append(LATEST_MOVED_ON.minusDays(i).format(MOVED_ON_FORMATTER))
+                        .append("\",\"chips_description\":\"")
+                        .append(CHIPS_DESCRIPTIONS.get(i % CHIPS_DESCRIPTIONS.size()))
+                        .append("\",\"transaction_id\":\"")
+                        .append("MDAxMTEyNzExOGFkaXF6a2N4").append(i)
+                        .append("\"}");
+            }
+            json.append("]}");
+        }
+        return json.append(",\"delta_at\":\"20231030111806428778\"}").toString();
+    }
+
+    private static String resource(String name) {
+        try (InputStream inputStream = BenchmarkDeltas.class.getResourceAsStream(name)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
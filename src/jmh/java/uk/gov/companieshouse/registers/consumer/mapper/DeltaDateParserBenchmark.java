@@ -0,0 +1,48 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// run with -prof gc to compare gc.alloc.rate.norm between the formatter and fixed-width parsers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeltaDateParserBenchmark {
+
+    private String deltaAt = "20231030111806428778";
+    private String movedOn = "20231030111806";
+
+    @Benchmark
+    public OffsetDateTime deltaAtFormatter() {
+        return ZonedDateTime.parse(deltaAt, DeltaDateParser.DELTA_AT_FORMATTER).toOffsetDateTime();
+    }
+
+    @Benchmark
+    public OffsetDateTime deltaAtFixedWidth() {
+        return DeltaDateParser.parseDeltaAt(deltaAt);
+    }
+
+    @Benchmark
+    public LocalDate movedOnFormatter() {
+        return LocalDate.parse(movedOn, DeltaDateParser.MOVED_ON_FORMATTER);
+    }
+
+    @Benchmark
+    public LocalDate movedOnFixedWidth() {
+        return DeltaDateParser.parseMovedOn(movedOn);
+    }
+}
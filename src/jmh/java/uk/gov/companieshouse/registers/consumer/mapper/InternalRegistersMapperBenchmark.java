@@ -0,0 +1,62 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.companieshouse.api.delta.RegisterDelta;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.registers.consumer.BenchmarkDeltas;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.serdes.SerdesConfig;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InternalRegistersMapperBenchmark {
+
+    @Param({BenchmarkDeltas.FIXTURE, "1", "10", "100", "1000"})
+    private String itemsPerRegister;
+
+    // parallel maps every delta concurrently (threshold 0), so comparing the two modes per size shows
+    // the total item count where mapper.parallel.threshold should sit
+    @Param({"sequential", "parallel"})
+    private String mode;
+
+    private ParallelRegisterMapping parallelMapping;
+    private InternalRegistersMapper mapper;
+    private RegisterDelta delta;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        parallelMapping = new MapperConfig().parallelRegisterMapping("parallel".equals(mode), 0, 4);
+        mapper = new InternalRegistersMapper(new MapperConfig().transactionKindService("salt", 100_000, 3_600_000,
+                new SimpleMeterRegistry()), new DeltaMetrics(new SimpleMeterRegistry()), parallelMapping);
+        delta = new SerdesConfig().objectMapper()
+                .readValue(BenchmarkDeltas.payload(itemsPerRegister), RegisterDelta.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelMapping.close();
+    }
+
+    @Benchmark
+    public InternalRegisters mapInternalRegisters() {
+        return mapper.mapInternalRegisters(delta, "context_id");
+    }
+}
@@ -0,0 +1,71 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import uk.gov.companieshouse.registers.consumer.BenchmarkDeltas;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.serdes.SerdesConfig;
+
+// run with -prof gc to compare gc.alloc.rate.norm between the databind (false) and streaming (true) paths
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistersUpsertDecoderBenchmark {
+
+    @Param({BenchmarkDeltas.FIXTURE, "1", "10", "100", "1000"})
+    private String itemsPerRegister;
+
+    @Param({"false", "true"})
+    private String streamingDecoder;
+
+    private AnnotationConfigApplicationContext context;
+    private RegistersUpsertDecoder decoder;
+    private String data;
+
+    @Setup
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("consumer.streaming-decoder", streamingDecoder, "transaction-id-salt", "salt",
+                        "transaction-id-cache.max-size", "100000", "transaction-id-cache.ttl-ms", "3600000",
+                        "mapper.parallel.enabled", "false", "mapper.parallel.threshold", "0",
+                        "mapper.parallel.max-threads", "1")));
+        context.register(SerdesConfig.class, MapperConfig.class, RegistersDeltaDeserialiser.class,
+                InternalRegistersMapper.class, RegistersUpsertDecoder.class);
+        context.registerBean(SimpleMeterRegistry.class);
+        context.registerBean(DeltaMetrics.class);
+        context.refresh();
+
+        decoder = context.getBean(RegistersUpsertDecoder.class);
+        data = BenchmarkDeltas.payload(itemsPerRegister);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public RegistersUpsert decode() {
+        return decoder.decode(data, "context_id");
+    }
+}
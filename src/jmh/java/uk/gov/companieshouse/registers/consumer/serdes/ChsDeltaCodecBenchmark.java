@@ -0,0 +1,72 @@
+package uk.gov.companieshouse.registers.consumer.serdes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.io.Decoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.BenchmarkDeltas;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChsDeltaCodecBenchmark {
+
+    @Param({BenchmarkDeltas.FIXTURE, "1", "10", "100", "1000"})
+    private String itemsPerRegister;
+
+    private final ChsDeltaDeserialiser deserialiser = new ChsDeltaDeserialiser();
+    private final ChsDeltaSerialiser serialiser = new ChsDeltaSerialiser();
+
+    private ChsDelta delta;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() {
+        delta = new ChsDelta(BenchmarkDeltas.payload(itemsPerRegister), 0, "context_id", false);
+        encoded = serialiser.serialize("topic", delta);
+    }
+
+    @Benchmark
+    public ChsDelta deserialisePerRecordReader() throws IOException {
+        Decoder decoder = DecoderFactory.get().binaryDecoder(encoded, null);
+        return new ReflectDatumReader<>(ChsDelta.class).read(null, decoder);
+    }
+
+    @Benchmark
+    public ChsDelta deserialiseCachedReader() {
+        return deserialiser.deserialize("topic", encoded);
+    }
+
+    @Benchmark
+    public byte[] serialisePerRecordWriter() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Encoder encoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
+        new ReflectDatumWriter<>(ChsDelta.class).write(delta, encoder);
+        return outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serialiseCachedWriter() {
+        return serialiser.serialize("topic", delta);
+    }
+}
@@ -0,0 +1,46 @@
+package uk.gov.companieshouse.registers.consumer.serdes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import uk.gov.companieshouse.api.delta.RegisterDelta;
+import uk.gov.companieshouse.registers.consumer.BenchmarkDeltas;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegistersDeltaDeserialiserBenchmark {
+
+    @Param({BenchmarkDeltas.FIXTURE, "1", "10", "100", "1000"})
+    private String itemsPerRegister;
+
+    private final RegistersDeltaDeserialiser deserialiser =
+            new RegistersDeltaDeserialiser(new SerdesConfig().objectMapper(),
+                    new DeltaMetrics(new SimpleMeterRegistry()));
+
+    private String data;
+
+    @Setup
+    public void setup() {
+        data = BenchmarkDeltas.payload(itemsPerRegister);
+    }
+
+    @Benchmark
+    public RegisterDelta deserialiseRegistersDelta() {
+        return deserialiser.deserialiseRegistersDelta(data);
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import uk.gov.companieshouse.api.filinghistory.utils.TransactionKindService;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.BenchmarkDeltas;
+import uk.gov.companieshouse.registers.consumer.apiclient.RegistersApiClient;
+import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
+import uk.gov.companieshouse.registers.consumer.mapper.ParallelRegisterMapping;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsertDecoder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.serdes.SerdesConfig;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeltaServiceRouterBenchmark {
+
+    @Param({BenchmarkDeltas.FIXTURE, "1", "10", "100", "1000"})
+    private String itemsPerRegister;
+
+    @Param({"false", "true"})
+    private String streamingDecoder;
+
+    private AnnotationConfigApplicationContext context;
+    private DeltaServiceRouter router;
+    private ChsDelta upsertDelta;
+    private ChsDelta deleteDelta;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        // wire the real services as the application does, with the API call swapped for a blackhole
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("consumer.streaming-decoder", streamingDecoder)));
+        context.register(SerdesConfig.class, RegistersDeltaDeserialiser.class, InternalRegistersMapper.class,
+                RegistersUpsertDecoder.class, UpsertDeltaService.class, DeleteDeltaService.class, DeltaServiceRouter.class);
+        context.registerBean(TransactionKindService.class, () -> new TransactionKindService("salt"));
+        context.registerBean(ParallelRegisterMapping.class, ParallelRegisterMapping::disabled);
+        context.registerBean(DeltaMetrics.class, () -> new DeltaMetrics(new SimpleMeterRegistry()));
+        // both disabled, as every iteration replays the same delta and should pay for the full path
+        DeltaStateStore store = new InMemoryDeltaStateStore(0);
+        context.registerBean(StaleDeltaCache.class, () -> new StaleDeltaCache(0L, store, new SimpleMeterRegistry()));
+        context.registerBean(ContentFingerprintCache.class,
+                () -> new ContentFingerprintCache(0L, new ObjectMapper(), store, new SimpleMeterRegistry()));
+        context.registerBean(RegistersApiClient.class, () -> new StubRegistersApiClient(blackhole));
+        context.refresh();
+
+        router = context.getBean(DeltaServiceRouter.class);
+        upsertDelta = new ChsDelta(BenchmarkDeltas.payload(itemsPerRegister), 0, "context_id", false);
+        deleteDelta = new ChsDelta(BenchmarkDeltas.deletePayload(), 0, "context_id", true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void routeUpsert() {
+        router.route(upsertDelta);
+    }
+
+    @Benchmark
+    public void routeDelete() {
+        router.route(deleteDelta);
+    }
+
+    private static class StubRegistersApiClient extends RegistersApiClient {
+
+        private final Blackhole blackhole;
+
+        StubRegistersApiClient(Blackhole blackhole) {
+            super(null, null, null, null);
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void upsertRegisters(String companyNumber, InternalRegisters requestBody) {
+            blackhole.consume(companyNumber);
+            blackhole.consume(requestBody);
+        }
+
+        @Override
+        public void deleteRegisters(String companyNumber) {
+            blackhole.consume(companyNumber);
+        }
+    }
+}
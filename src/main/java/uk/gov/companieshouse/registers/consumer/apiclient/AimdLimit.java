@@ -0,0 +1,35 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import java.time.Duration;
+
+// additive increase, multiplicative decrease: the limit grows by about one for every limit's worth of healthy calls
+// and is cut back by the backoff ratio on each failed or slow one; not thread safe, ApiCallGuard holds the lock
+class AimdLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    private double limit;
+
+    AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        this.minLimit = Math.max(minLimit, 1);
+        this.maxLimit = Math.max(maxLimit, this.minLimit);
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+    }
+
+    int limit() {
+        return (int) limit;
+    }
+
+    void onSample(long latencyNanos, boolean failed, int inFlight) {
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlight * 2 >= limit) {
+            // only grown while the limit is actually being used, so a quiet period does not inflate it
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import org.springframework.http.HttpStatus;
+import uk.gov.companieshouse.registers.consumer.apiclient.CircuitBreaker.State;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+
+public class ApiCallGuard {
+
+    private static final String REJECTED_MESSAGE = "Timed out waiting for the registers API to accept a call";
+    private static final Permit UNGUARDED = new Permit(null, 0L, false);
+
+    private final AimdLimit limit;
+    private final CircuitBreaker breaker;
+    private final long maxWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final List<CircuitListener> listeners = new CopyOnWriteArrayList<>();
+    private final Counter rejected;
+    private final Counter opened;
+    private int inFlight;
+
+    ApiCallGuard(AimdLimit limit, CircuitBreaker breaker, Duration maxWait, MeterRegistry meterRegistry) {
+        this.limit = limit;
+        this.breaker = breaker;
+        this.maxWaitNanos = maxWait.toNanos();
+
+        Gauge.builder("registers.api.limit", this, guard -> guard.read(guard.limit::limit))
+                .description("Concurrent registers API calls currently allowed")
+                .register(meterRegistry);
+        Gauge.builder("registers.api.in.flight", this, guard -> guard.read(() -> guard.inFlight))
+                .description("Registers API calls currently in flight")
+                .register(meterRegistry);
+        Gauge.builder("registers.api.circuit.state", this, guard -> guard.read(() -> guard.breaker.state().ordinal()))
+                .description("Registers API circuit: 0 closed, 1 half open, 2 open")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("registers.api.rejected")
+                .description("Registers API calls given up after waiting for the limit or an open circuit")
+                .register(meterRegistry);
+        this.opened = Counter.builder("registers.api.circuit.opened")
+                .description("Times the registers API circuit has opened")
+                .register(meterRegistry);
+    }
+
+    private ApiCallGuard() {
+        this.limit = null;
+        this.breaker = null;
+        this.maxWaitNanos = 0L;
+        this.rejected = null;
+        this.opened = null;
+    }
+
+    public static ApiCallGuard unguarded() {
+        return new ApiCallGuard();
+    }
+
+    // no response, a timeout, throttling or a server error; other statuses are answers from a healthy API
+    public static boolean isUnavailable(Integer statusCode) {
+        return statusCode == null
+                || statusCode == HttpStatus.TOO_MANY_REQUESTS.value()
+                || statusCode >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    public void addCircuitListener(CircuitListener listener) {
+        listeners.add(listener);
+    }
+
+    public Permit acquire() {
+        if (breaker == null) {
+            return UNGUARDED;
+        }
+
+        long deadline = System.nanoTime() + maxWaitNanos;
+        State before;
+        State after;
+        lock.lock();
+        try {
+            before = breaker.state();
+            while (inFlight >= limit.limit() || !breaker.tryAcquire()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new RetryableException(REJECTED_MESSAGE, null);
+                }
+                // an open circuit lets a trial call through once its open duration has passed, without a release
+                long untilHalfOpen = breaker.nanosUntilHalfOpen();
+                changed.awaitNanos(untilHalfOpen > 0 ? Math.min(remaining, untilHalfOpen) : remaining);
+            }
+            inFlight++;
+            after = breaker.state();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RetryableException(REJECTED_MESSAGE, ex);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(before, after);
+        return new Permit(this, System.nanoTime(), after == State.HALF_OPEN);
+    }
+
+    private void release(Permit permit, boolean unavailable) {
+        State before;
+        State after;
+        lock.lock();
+        try {
+            before = breaker.state();
+            inFlight--;
+            limit.onSample(System.nanoTime() - permit.start, unavailable, inFlight);
+            breaker.onResult(permit.trial, unavailable);
+            after = breaker.state();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(before, after);
+    }
+
+    // a call that never reached the registers API gives back its place without counting towards the limit or circuit
+    private void abandon(Permit permit) {
+        lock.lock();
+        try {
+            inFlight--;
+            breaker.onAbandoned(permit.trial);
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // called outside the lock, as listeners pause and resume listener containers
+    private void notifyListeners(State before, State after) {
+        if (before == after) {
+            return;
+        }
+        if (after == State.OPEN) {
+            opened.increment();
+            listeners.forEach(listener -> listener.opened(breaker.openDuration()));
+        } else if (after == State.CLOSED) {
+            listeners.forEach(CircuitListener::closed);
+        }
+    }
+
+    private double read(IntSupplier value) {
+        lock.lock();
+        try {
+            return value.getAsInt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public interface CircuitListener {
+
+        void opened(Duration openFor);
+
+        void closed();
+    }
+
+    public static final class Permit {
+
+        private final ApiCallGuard guard;
+        private final long start;
+        private final boolean trial;
+
+        private Permit(ApiCallGuard guard, long start, boolean trial) {
+            this.guard = guard;
+            this.start = start;
+            this.trial = trial;
+        }
+
+        public void release(boolean unavailable) {
+            if (guard != null) {
+                guard.release(this, unavailable);
+            }
+        }
+
+        public void abandon() {
+            if (guard != null) {
+                guard.abandon(this);
+            }
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package uk.gov.companieshouse.registers.consumer.apiclient;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.function.Supplier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import uk.gov.companieshouse.api.InternalApiClient;
@@ -20,4 +24,47 @@ public class ApiClientConfig {
             return internalApiClient;
         };
     }
+
+    @Bean
+    InternalApiClientPool internalApiClientPool(Supplier<InternalApiClient> internalApiClientSupplier,
+            @Value("${api.pool.max-connections}") int maxConnections,
+            @Value("${api.pool.idle-timeout-ms}") long idleTimeout,
+            @Value("${api.pool.acquire-timeout-ms}") long acquireTimeout,
+            MeterRegistry meterRegistry) {
+        // the keep-alive cache of the SDK's HttpURLConnection transport is sized by http.maxConnections, which is
+        // given to the JVM by docker_start.sh
+        return new InternalApiClientPool(internalApiClientSupplier, maxConnections, Duration.ofMillis(idleTimeout),
+                Duration.ofMillis(acquireTimeout), meterRegistry);
+    }
+
+    @Bean
+    ApiCallGuard apiCallGuard(@Value("${api.guard.enabled}") boolean enabled,
+            @Value("${api.guard.max-wait-ms}") long maxWait,
+            @Value("${api.guard.limit.initial}") int initialLimit,
+            @Value("${api.guard.limit.min}") int minLimit,
+            @Value("${api.guard.limit.max}") int maxLimit,
+            @Value("${api.guard.limit.backoff-ratio}") double backoffRatio,
+            @Value("${api.guard.limit.latency-threshold-ms}") long latencyThreshold,
+            @Value("${api.guard.circuit.window-size}") int windowSize,
+            @Value("${api.guard.circuit.minimum-calls}") int minimumCalls,
+            @Value("${api.guard.circuit.failure-rate-threshold}") double failureRateThreshold,
+            @Value("${api.guard.circuit.open-duration-ms}") long openDuration,
+            MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return ApiCallGuard.unguarded();
+        }
+        return new ApiCallGuard(
+                new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio, Duration.ofMillis(latencyThreshold)),
+                new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, Duration.ofMillis(openDuration)),
+                Duration.ofMillis(maxWait), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "async")
+    HttpClient registersHttpClient(@Value("${api.request-timeout-ms}") long requestTimeout) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(requestTimeout))
+                .build();
+    }
 }
@@ -0,0 +1,152 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.logging.util.DataMap;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+
+@Component
+@ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "async")
+public class AsyncRegistersApiClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String REQUEST_URI = "/company/%s/registers";
+    private static final String REQUEST_ID_HEADER = "x-request-id";
+
+    private final HttpClient httpClient;
+    private final ResponseHandler responseHandler;
+    private final DeltaMetrics deltaMetrics;
+    private final ApiCallGuard apiCallGuard;
+    private final ObjectWriter writer;
+    private final String apiUrl;
+    private final String authorisation;
+    private final Duration requestTimeout;
+
+    public AsyncRegistersApiClient(HttpClient httpClient, ResponseHandler responseHandler, DeltaMetrics deltaMetrics,
+            ApiCallGuard apiCallGuard, ObjectMapper objectMapper,
+            @Value("${api.api-url}") String apiUrl,
+            @Value("${api.api-key}") String apiKey,
+            @Value("${api.request-timeout-ms}") long requestTimeout) {
+        this.httpClient = httpClient;
+        this.responseHandler = responseHandler;
+        this.deltaMetrics = deltaMetrics;
+        this.apiCallGuard = apiCallGuard;
+        this.writer = objectMapper.writer().without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.apiUrl = apiUrl;
+        // matches the SDK's ApiKeyHttpClient, which sends the key as the basic auth username
+        this.authorisation = "Basic " + Base64.getEncoder()
+                .encodeToString("%s:".formatted(apiKey).getBytes(StandardCharsets.UTF_8));
+        this.requestTimeout = Duration.ofMillis(requestTimeout);
+    }
+
+    public CompletableFuture<Void> upsertRegisters(String companyNumber, InternalRegisters requestBody) {
+        DataMapHolder.get().companyNumber(companyNumber);
+
+        return send(() -> {
+            final byte[] body;
+            try {
+                body = writer.writeValueAsBytes(requestBody);
+            } catch (JsonProcessingException ex) {
+                throw new NonRetryableException("Unable to serialise registers request body", ex);
+            }
+            return requestBuilder(companyNumber)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        }, ApiOperation.UPSERT, "Successfully called upsert registers");
+    }
+
+    public CompletableFuture<Void> deleteRegisters(String companyNumber) {
+        DataMapHolder.get().companyNumber(companyNumber);
+
+        return send(() -> requestBuilder(companyNumber)
+                .DELETE()
+                .build(), ApiOperation.DELETE, "Successfully called delete registers");
+    }
+
+    private HttpRequest.Builder requestBuilder(String companyNumber) {
+        return HttpRequest.newBuilder(URI.create(apiUrl + REQUEST_URI.formatted(companyNumber)))
+                .timeout(requestTimeout)
+                .header(HttpHeaders.AUTHORIZATION, authorisation)
+                .header(REQUEST_ID_HEADER, DataMapHolder.getRequestId());
+    }
+
+    // every failure, including one thrown before the request is sent, is returned as a failed future so callers
+    // handle it in one place and the permit is always given back
+    private CompletableFuture<Void> send(Supplier<HttpRequest> requestBuilder, ApiOperation operation,
+            String successMessage) {
+        // the listener thread clears its log context once the future is returned, so the callback takes it over
+        DataMap.Builder logContext = DataMapHolder.get();
+        final HttpRequest request;
+        final ApiCallGuard.Permit permit;
+        try {
+            request = requestBuilder.get();
+            // waiting for a permit holds up the listener thread, which is what throttles fetching in async mode
+            permit = apiCallGuard.acquire();
+        } catch (RuntimeException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+        long start = System.nanoTime();
+        final CompletableFuture<HttpResponse<Void>> sent;
+        try {
+            sent = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        } catch (RuntimeException ex) {
+            permit.abandon();
+            return CompletableFuture.failedFuture(ex);
+        }
+        return sent
+                .handle((response, ex) -> {
+                    Integer statusCode = response != null ? response.statusCode() : null;
+                    permit.release(ApiCallGuard.isUnavailable(statusCode));
+                    deltaMetrics.recordApiCall(operation, statusCode, start);
+                    DataMapHolder.set(logContext);
+                    try {
+                        handleResponse(response, ex, successMessage);
+                        return null;
+                    } finally {
+                        DataMapHolder.clear();
+                    }
+                });
+    }
+
+    private void handleResponse(HttpResponse<Void> response, Throwable ex, String successMessage) {
+        if (ex != null) {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IOException ioException) {
+                responseHandler.handle(ioException);
+            }
+            throw new CompletionException(cause);
+        }
+        if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            LOGGER.info(successMessage, DataMapHolder.getLogMap());
+        } else {
+            responseHandler.handle(response);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// failure rate over a window of the most recent calls; once open, a single trial call is let through after the open
+// duration and closes or reopens the circuit; not thread safe, ApiCallGuard holds the lock
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final LongSupplier nanoTime;
+    private State state = State.CLOSED;
+    private int calls;
+    private int failures;
+    private int next;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, Duration openDuration,
+            LongSupplier nanoTime) {
+        this.window = new boolean[Math.max(windowSize, 1)];
+        this.minimumCalls = Math.clamp(minimumCalls, 1, window.length);
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    State state() {
+        return state;
+    }
+
+    Duration openDuration() {
+        return Duration.ofNanos(openNanos);
+    }
+
+    boolean tryAcquire() {
+        if (state == State.OPEN && nanosUntilHalfOpen() <= 0) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInFlight) {
+                    yield false;
+                }
+                trialInFlight = true;
+                yield true;
+            }
+        };
+    }
+
+    long nanosUntilHalfOpen() {
+        return state == State.OPEN ? openedAt + openNanos - nanoTime.getAsLong() : 0L;
+    }
+
+    void onResult(boolean trial, boolean failed) {
+        if (state == State.HALF_OPEN && trial) {
+            if (failed) {
+                open();
+            } else {
+                close();
+            }
+        } else if (state == State.CLOSED) {
+            record(failed);
+            if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+                open();
+            }
+        }
+        // results of calls started before the circuit opened say nothing about the trial, so are dropped
+    }
+
+    // a trial that was never sent leaves the circuit half open for the next call to try
+    void onAbandoned(boolean trial) {
+        if (state == State.HALF_OPEN && trial) {
+            trialInFlight = false;
+        }
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            failures -= window[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        window[next] = failed;
+        failures += failed ? 1 : 0;
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+        trialInFlight = false;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        calls = 0;
+        failures = 0;
+        next = 0;
+        trialInFlight = false;
+    }
+}
@@ -0,0 +1,114 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import uk.gov.companieshouse.api.InternalApiClient;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+
+public class InternalApiClientPool {
+
+    private static final String ACQUIRE_TIMEOUT_MESSAGE = "Timed out waiting for a registers API client";
+
+    private final Supplier<InternalApiClient> factory;
+    private final long idleTimeoutNanos;
+    private final long acquireTimeoutNanos;
+    private final Semaphore permits;
+    private final Deque<IdleClient> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer acquireTimer;
+
+    public InternalApiClientPool(Supplier<InternalApiClient> factory, int maxSize, Duration idleTimeout,
+            Duration acquireTimeout, MeterRegistry meterRegistry) {
+        this.factory = factory;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.permits = new Semaphore(maxSize, true);
+
+        Gauge.builder("registers.api.client.pool.active", active, AtomicInteger::get)
+                .description("Registers API clients currently leased")
+                .register(meterRegistry);
+        Gauge.builder("registers.api.client.pool.idle", idle, Deque::size)
+                .description("Registers API clients available for reuse")
+                .register(meterRegistry);
+        Gauge.builder("registers.api.client.pool.max", () -> maxSize)
+                .description("Maximum number of registers API clients")
+                .register(meterRegistry);
+        this.acquireTimer = Timer.builder("registers.api.client.pool.acquire")
+                .description("Time spent waiting to lease a registers API client")
+                .register(meterRegistry);
+    }
+
+    public Lease borrow() {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new RetryableException(ACQUIRE_TIMEOUT_MESSAGE, null);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RetryableException(ACQUIRE_TIMEOUT_MESSAGE, ex);
+        } finally {
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        active.incrementAndGet();
+
+        IdleClient reusable = idle.pollFirst();
+        if (reusable != null) {
+            return new Lease(reusable.client());
+        }
+        try {
+            return new Lease(factory.get());
+        } catch (RuntimeException ex) {
+            // otherwise every failure to create a client would take a slot out of the pool for good
+            active.decrementAndGet();
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void release(InternalApiClient client) {
+        // most recently used clients are reused first, so the ones left idle too long gather at the tail
+        long now = System.nanoTime();
+        idle.offerFirst(new IdleClient(client, now));
+        IdleClient oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.since() > idleTimeoutNanos) {
+            idle.removeLastOccurrence(oldest);
+        }
+        active.decrementAndGet();
+        permits.release();
+    }
+
+    public final class Lease implements AutoCloseable {
+
+        private final InternalApiClient client;
+        private boolean released;
+
+        private Lease(InternalApiClient client) {
+            this.client = client;
+        }
+
+        public InternalApiClient client() {
+            return client;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(client);
+            }
+        }
+    }
+
+    private record IdleClient(InternalApiClient client, long since) {
+
+    }
+}
@@ -2,15 +2,17 @@ package uk.gov.companieshouse.registers.consumer.apiclient;
 
 import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
 
-import java.util.function.Supplier;
 import org.springframework.stereotype.Component;
 import uk.gov.companieshouse.api.InternalApiClient;
 import uk.gov.companieshouse.api.error.ApiErrorResponseException;
 import uk.gov.companieshouse.api.handler.exception.URIValidationException;
+import uk.gov.companieshouse.api.model.ApiResponse;
 import uk.gov.companieshouse.api.registers.InternalRegisters;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
 import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
 
 @Component
 public class RegistersApiClient {
@@ -18,52 +20,87 @@ public class RegistersApiClient {
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
     private static final String REQUEST_URI = "/company/%s/registers";
 
-    private final Supplier<InternalApiClient> internalApiClientFactory;
+    private final InternalApiClientPool internalApiClientPool;
     private final ResponseHandler responseHandler;
+    private final DeltaMetrics deltaMetrics;
+    private final ApiCallGuard apiCallGuard;
 
-    public RegistersApiClient(Supplier<InternalApiClient> internalApiClientFactory, ResponseHandler responseHandler) {
-        this.internalApiClientFactory = internalApiClientFactory;
+    public RegistersApiClient(InternalApiClientPool internalApiClientPool, ResponseHandler responseHandler,
+            DeltaMetrics deltaMetrics, ApiCallGuard apiCallGuard) {
+        this.internalApiClientPool = internalApiClientPool;
         this.responseHandler = responseHandler;
+        this.deltaMetrics = deltaMetrics;
+        this.apiCallGuard = apiCallGuard;
     }
 
     public void upsertRegisters(String companyNumber, InternalRegisters requestBody) {
-        InternalApiClient client = internalApiClientFactory.get();
-        client.getHttpClient().setRequestId(DataMapHolder.getRequestId());
-
         DataMapHolder.get().companyNumber(companyNumber);
 
         final String formattedUri = REQUEST_URI.formatted(companyNumber);
 
-        try {
-            client.privateDeltaResourceHandler()
-                    .putRegisters()
-                    .upsert(formattedUri, requestBody)
-                    .execute();
-            LOGGER.info("Successfully called upsert registers", DataMapHolder.getLogMap());
-        } catch (ApiErrorResponseException ex) {
-            responseHandler.handle(ex);
-        } catch (URIValidationException ex) {
-            responseHandler.handle(ex);
+        // the client is borrowed before the guard is asked, so timing out waiting for one is never counted against
+        // the registers API; the leased client is not shared until it is returned, so setting the request ID is safe
+        try (InternalApiClientPool.Lease lease = internalApiClientPool.borrow()) {
+            InternalApiClient client = lease.client();
+            client.getHttpClient().setRequestId(DataMapHolder.getRequestId());
+
+            ApiCallGuard.Permit permit = apiCallGuard.acquire();
+            long start = System.nanoTime();
+            Integer statusCode = null;
+            boolean unavailable = true;
+            try {
+                ApiResponse<Void> response = client.privateDeltaResourceHandler()
+                        .putRegisters()
+                        .upsert(formattedUri, requestBody)
+                        .execute();
+                statusCode = response.getStatusCode();
+                unavailable = false;
+                LOGGER.info("Successfully called upsert registers", DataMapHolder.getLogMap());
+            } catch (ApiErrorResponseException ex) {
+                statusCode = ex.getStatusCode();
+                unavailable = ApiCallGuard.isUnavailable(statusCode);
+                responseHandler.handle(ex);
+            } catch (URIValidationException ex) {
+                unavailable = false;
+                responseHandler.handle(ex);
+            } finally {
+                permit.release(unavailable);
+                deltaMetrics.recordApiCall(ApiOperation.UPSERT, statusCode, start);
+            }
         }
     }
 
     public void deleteRegisters(String companyNumber) {
-        InternalApiClient client = internalApiClientFactory.get();
-        client.getHttpClient().setRequestId(DataMapHolder.getRequestId());
-
         DataMapHolder.get().companyNumber(companyNumber);
 
         final String formattedUri = REQUEST_URI.formatted(companyNumber);
 
-        try {
-            client.privateDeltaResourceHandler()
-                    .deleteRegisters(formattedUri)
-                    .execute();
-            LOGGER.info("Successfully called delete registers", DataMapHolder.getLogMap());
-        } catch (ApiErrorResponseException ex) {
-            responseHandler.handle(ex);
-        } catch (URIValidationException ex) {
-            responseHandler.handle(ex);
+        try (InternalApiClientPool.Lease lease = internalApiClientPool.borrow()) {
+            InternalApiClient client = lease.client();
+            client.getHttpClient().setRequestId(DataMapHolder.getRequestId());
+
+            ApiCallGuard.Permit permit = apiCallGuard.acquire();
+            long start = System.nanoTime();
+            Integer statusCode = null;
+            boolean unavailable = true;
+            try {
+                ApiResponse<Void> response = client.privateDeltaResourceHandler()
+                        .deleteRegisters(formattedUri)
+                        .execute();
+                statusCode = response.getStatusCode();
+                unavailable = false;
+                LOGGER.info("Successfully called delete registers", DataMapHolder.getLogMap());
+            } catch (ApiErrorResponseException ex) {
+                statusCode = ex.getStatusCode();
+                unavailable = ApiCallGuard.isUnavailable(statusCode);
+                responseHandler.handle(ex);
+            } catch (URIValidationException ex) {
+                unavailable = false;
+                responseHandler.handle(ex);
+            } finally {
+                permit.release(unavailable);
+                deltaMetrics.recordApiCall(ApiOperation.DELETE, statusCode, start);
+            }
         }
     }
 
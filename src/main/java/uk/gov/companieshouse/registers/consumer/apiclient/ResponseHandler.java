@@ -2,6 +2,8 @@ package uk.gov.companieshouse.registers.consumer.apiclient;
 
 import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
 
+import java.io.IOException;
+import java.net.http.HttpResponse;
 import java.util.Arrays;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
@@ -19,6 +21,7 @@ public class ResponseHandler {
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
     private static final String API_ERROR_RESPONSE_MESSAGE = "HTTP response code %d when calling registers API";
     private static final String URI_VALIDATION_EXCEPTION_MESSAGE = "Failed call to registers API due to invalid URI";
+    private static final String IO_EXCEPTION_MESSAGE = "Failed call to registers API due to I/O error";
 
     public void handle(ApiErrorResponseException ex) {
 
@@ -39,4 +42,22 @@ public class ResponseHandler {
         LOGGER.error(URI_VALIDATION_EXCEPTION_MESSAGE, DataMapHolder.getLogMap());
         throw new NonRetryableException(URI_VALIDATION_EXCEPTION_MESSAGE, ex);
     }
+
+    public void handle(HttpResponse<?> response) {
+        final int statusCode = response.statusCode();
+        String message = API_ERROR_RESPONSE_MESSAGE.formatted(statusCode);
+
+        if (HttpStatus.BAD_REQUEST.value() == statusCode || HttpStatus.CONFLICT.value() == statusCode) {
+            LOGGER.error(message, DataMapHolder.getLogMap());
+            throw new NonRetryableException(message);
+        } else {
+            LOGGER.info(message, DataMapHolder.getLogMap());
+            throw new RetryableException(message, null);
+        }
+    }
+
+    public void handle(IOException ex) {
+        LOGGER.info("%s: %s".formatted(IO_EXCEPTION_MESSAGE, ex.getMessage()), DataMapHolder.getLogMap());
+        throw new RetryableException(IO_EXCEPTION_MESSAGE, ex);
+    }
 }
@@ -0,0 +1,53 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.service.AsyncDeltaServiceRouter;
+
+@Component
+@ConditionalOnExpression("'${consumer.mode:record}' == 'async' or '${consumer.mode:record}' == 'virtual'")
+public class AsyncConsumer {
+
+    private final AsyncDeltaServiceRouter router;
+    private final InFlightRecords inFlightRecords;
+
+    public AsyncConsumer(AsyncDeltaServiceRouter router, InFlightRecords inFlightRecords) {
+        this.router = router;
+        this.inFlightRecords = inFlightRecords;
+    }
+
+    @KafkaListener(
+            id = "${consumer.group-id}",
+            containerFactory = "kafkaListenerContainerFactory",
+            topics = {"${consumer.topic}"},
+            groupId = "${consumer.group-id}"
+    )
+    public CompletableFuture<Void> consume(Message<ChsDelta> message,
+            @Header(name = RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS, required = false) Integer attempt,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(KafkaHeaders.RECEIVED_PARTITION) Integer partition,
+            @Header(KafkaHeaders.OFFSET) Long offset) {
+        // blocking the listener thread once the partition is at its limit stops the container fetching further ahead;
+        // offsets are committed by the container in order as the returned futures complete
+        TopicPartition topicPartition = new TopicPartition(topic, partition);
+        inFlightRecords.acquire(topicPartition);
+
+        CompletableFuture<Void> result;
+        try {
+            result = router.route(message.getPayload());
+        } catch (RuntimeException ex) {
+            inFlightRecords.release(topicPartition);
+            throw ex;
+        }
+        result.whenComplete((ignored, ex) -> inFlightRecords.release(topicPartition));
+        return result;
+    }
+}
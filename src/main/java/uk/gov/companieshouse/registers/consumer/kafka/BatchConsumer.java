@@ -0,0 +1,132 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.service.DeltaServiceRouter;
+
+@Component
+@ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "batch")
+public class BatchConsumer implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String LOG_MESSAGE_COALESCED = "Coalesced batch of %d records into %d deltas";
+    private static final String LOG_MESSAGE_RECEIVED = "Processing delta";
+    private static final String LOG_MESSAGE_DELETE_RECEIVED = "Processing DELETE delta";
+
+    private final DeltaServiceRouter router;
+    private final DeltaCoalescer coalescer;
+    private final DeltaMetrics deltaMetrics;
+    private final ExecutorService executor;
+
+    public BatchConsumer(DeltaServiceRouter router, DeltaCoalescer coalescer, DeltaMetrics deltaMetrics,
+            @Value("${consumer.batch-parallelism}") int parallelism) {
+        this.router = router;
+        this.coalescer = coalescer;
+        this.deltaMetrics = deltaMetrics;
+        this.executor = parallelism > 1
+                ? Executors.newFixedThreadPool(parallelism, Thread.ofVirtual().name("registers-batch-", 0).factory())
+                : null;
+    }
+
+    @KafkaListener(
+            id = "${consumer.group-id}",
+            containerFactory = "kafkaListenerContainerFactory",
+            topics = {"${consumer.topic}"},
+            groupId = "${consumer.group-id}",
+            batch = "true"
+    )
+    public void consume(List<ConsumerRecord<String, ChsDelta>> records) {
+        List<ConsumerRecord<String, ChsDelta>> coalesced = coalescer.coalesce(records);
+        LOGGER.debug(LOG_MESSAGE_COALESCED.formatted(records.size(), coalesced.size()));
+
+        if (executor == null) {
+            for (ConsumerRecord<String, ChsDelta> consumerRecord : coalesced) {
+                process(consumerRecord);
+            }
+        } else {
+            processInParallel(coalesced);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+
+    // coalescing leaves at most one delta per company, so the deltas of a batch can be applied side by side without
+    // reordering any company's changes. Every delta is waited for before the earliest failure is reported, so the
+    // error handler commits only the offsets before it, all of which have completed, and seeks back to it; deltas
+    // after it that did complete are delivered again and skipped by the stale and duplicate checks
+    private void processInParallel(List<ConsumerRecord<String, ChsDelta>> coalesced) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>(coalesced.size());
+        for (ConsumerRecord<String, ChsDelta> consumerRecord : coalesced) {
+            futures.add(CompletableFuture.runAsync(() -> process(consumerRecord), executor));
+        }
+
+        RuntimeException earliest = null;
+        for (CompletableFuture<Void> future : futures) {
+            try {
+                future.join();
+            } catch (CompletionException ex) {
+                if (earliest == null) {
+                    earliest = ex.getCause() instanceof BatchListenerFailedException failed ? failed : ex;
+                }
+            }
+        }
+        if (earliest != null) {
+            throw earliest;
+        }
+    }
+
+    private void process(ConsumerRecord<String, ChsDelta> consumerRecord) {
+        ChsDelta delta = consumerRecord.value();
+        try {
+            if (delta == null) {
+                throw new NonRetryableException("Invalid payload at offset [%d]".formatted(consumerRecord.offset()));
+            }
+            DataMapHolder.initialise(Optional.ofNullable(delta.getContextId()).orElse(UUID.randomUUID().toString()));
+            DataMapHolder.get()
+                    .topic(consumerRecord.topic())
+                    .partition(consumerRecord.partition())
+                    .offset(consumerRecord.offset());
+            LOGGER.info(delta.getIsDelete() ? LOG_MESSAGE_DELETE_RECEIVED : LOG_MESSAGE_RECEIVED,
+                    DataMapHolder.getLogMap());
+
+            router.route(delta);
+            deltaMetrics.recordSuccess();
+        } catch (RetryableException ex) {
+            deltaMetrics.recordFailure(ex);
+            LOGGER.info("RetryableException exception thrown", DataMapHolder.getLogMap());
+            throw new BatchListenerFailedException(ex.getMessage(), ex, consumerRecord);
+        } catch (RuntimeException ex) {
+            deltaMetrics.recordFailure(ex);
+            LOGGER.error("Exception thrown", ex, DataMapHolder.getLogMap());
+            throw new BatchListenerFailedException(ex.getMessage(), ex, consumerRecord);
+        } finally {
+            DataMapHolder.clear();
+        }
+    }
+}
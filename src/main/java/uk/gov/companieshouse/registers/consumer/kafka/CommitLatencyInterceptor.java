@@ -0,0 +1,73 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+public class CommitLatencyInterceptor implements ConsumerInterceptor<String, ChsDelta> {
+
+    // kafka creates an interceptor per consumer and only calls it from that consumer's thread, which is also the thread
+    // the rebalance listener runs on, so the listener can reach this consumer's interceptor through the thread
+    private static final ThreadLocal<CommitLatencyInterceptor> CURRENT = new ThreadLocal<>();
+
+    private final Map<TopicPartition, NavigableMap<Long, Long>> uncommitted = new HashMap<>();
+    private DeltaMetrics deltaMetrics;
+
+    @Override
+    public ConsumerRecords<String, ChsDelta> onConsume(ConsumerRecords<String, ChsDelta> records) {
+        CURRENT.set(this);
+        for (ConsumerRecord<String, ChsDelta> consumerRecord : records) {
+            uncommitted.computeIfAbsent(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()),
+                            partition -> new TreeMap<>())
+                    .put(consumerRecord.offset(), consumerRecord.timestamp());
+        }
+        return records;
+    }
+
+    @Override
+    public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        long now = System.currentTimeMillis();
+        offsets.forEach((partition, offset) -> {
+            NavigableMap<Long, Long> timestamps = uncommitted.get(partition);
+            if (timestamps == null) {
+                return;
+            }
+            // the committed offset is the next one to read, so everything before it has now been committed
+            SortedMap<Long, Long> committed = timestamps.headMap(offset.offset());
+            committed.values().forEach(
+                    timestamp -> deltaMetrics.recordCommitLatency(partition.topic(), timestamp, now));
+            committed.clear();
+        });
+    }
+
+    // records left uncommitted on revoked or lost partitions are replayed by their new owner, so are not tracked here
+    public static void forgetPartitions(Collection<TopicPartition> partitions) {
+        CommitLatencyInterceptor interceptor = CURRENT.get();
+        if (interceptor != null) {
+            interceptor.uncommitted.keySet().removeAll(partitions);
+        }
+    }
+
+    @Override
+    public void close() {
+        uncommitted.clear();
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        this.deltaMetrics = (DeltaMetrics) configs.get("delta-metrics");
+    }
+}
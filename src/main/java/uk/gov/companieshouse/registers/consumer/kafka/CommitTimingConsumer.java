@@ -0,0 +1,55 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import org.apache.kafka.clients.consumer.Consumer;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+// times the offset commits made by the listener container, tagged with the commit strategy so record level and
+// batched commits can be compared under load; the container commits synchronously, so only commitSync is timed
+final class CommitTimingConsumer implements InvocationHandler {
+
+    private static final String COMMIT_SYNC = "commitSync";
+
+    private final Consumer<?, ?> delegate;
+    private final DeltaMetrics deltaMetrics;
+    private final String strategy;
+
+    private CommitTimingConsumer(Consumer<?, ?> delegate, DeltaMetrics deltaMetrics, String strategy) {
+        this.delegate = delegate;
+        this.deltaMetrics = deltaMetrics;
+        this.strategy = strategy;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> Consumer<K, V> wrap(Consumer<K, V> consumer, DeltaMetrics deltaMetrics, String strategy) {
+        return (Consumer<K, V>) Proxy.newProxyInstance(Consumer.class.getClassLoader(),
+                new Class<?>[]{Consumer.class}, new CommitTimingConsumer(consumer, deltaMetrics, strategy));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (!COMMIT_SYNC.equals(method.getName())) {
+            return invokeDelegate(method, args);
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = invokeDelegate(method, args);
+            failed = false;
+            return result;
+        } finally {
+            deltaMetrics.recordCommit(strategy, failed, start);
+        }
+    }
+
+    private Object invokeDelegate(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package uk.gov.companieshouse.registers.consumer.kafka;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.retrytopic.RetryTopicHeaders;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -7,18 +8,16 @@ import org.springframework.messaging.Message;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 import uk.gov.companieshouse.delta.ChsDelta;
-import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
 import uk.gov.companieshouse.registers.consumer.service.DeltaServiceRouter;
 
 @Component
+@ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "record", matchIfMissing = true)
 public class Consumer {
 
     private final DeltaServiceRouter router;
-    private final MessageFlags messageFlags;
 
-    public Consumer(DeltaServiceRouter router, MessageFlags messageFlags) {
+    public Consumer(DeltaServiceRouter router) {
         this.router = router;
-        this.messageFlags = messageFlags;
     }
 
     @KafkaListener(
@@ -32,11 +31,6 @@ public class Consumer {
             @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
             @Header(KafkaHeaders.RECEIVED_PARTITION) Integer partition,
             @Header(KafkaHeaders.OFFSET) Long offset) {
-        try {
-            router.route(message.getPayload());
-        } catch (RetryableException ex) {
-            messageFlags.setRetryable(true);
-            throw ex;
-        }
+        router.route(message.getPayload());
     }
 }
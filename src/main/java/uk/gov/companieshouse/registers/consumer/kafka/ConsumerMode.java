@@ -0,0 +1,20 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+// how records are handed to the registers API, from consumer.mode. Each mode registers exactly one listener:
+// Consumer for record, BatchConsumer for batch and AsyncConsumer for async and virtual
+public enum ConsumerMode {
+    RECORD,
+    BATCH,
+    ASYNC,
+    VIRTUAL;
+
+    public static ConsumerMode of(String mode) {
+        return switch (mode) {
+            case "record" -> RECORD;
+            case "batch" -> BATCH;
+            case "async" -> ASYNC;
+            case "virtual" -> VIRTUAL;
+            default -> throw new IllegalArgumentException("Unknown consumer mode: " + mode);
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.serdes.DeltaFields;
+
+@Component
+public class DeltaCoalescer {
+
+    private static final String COMPANY_NUMBER = "company_number";
+    private static final String DELTA_AT = "delta_at";
+
+    private final ObjectMapper objectMapper;
+
+    public DeltaCoalescer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public List<ConsumerRecord<String, ChsDelta>> coalesce(List<ConsumerRecord<String, ChsDelta>> records) {
+        // register deltas carry the full register state, so only the newest per company needs applying;
+        // records that cannot be keyed are kept so they fail downstream in the usual way
+        DeltaKey[] keys = new DeltaKey[records.size()];
+        Map<String, Integer> newest = new HashMap<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            DeltaKey key = extractKey(records.get(i).value());
+            keys[i] = key;
+            if (key != null) {
+                final int index = i;
+                newest.merge(key.companyNumber(), index,
+                        (current, candidate) -> keys[current].deltaAt().compareTo(keys[index].deltaAt()) > 0
+                                ? current : candidate);
+            }
+        }
+
+        List<ConsumerRecord<String, ChsDelta>> coalesced = new ArrayList<>(newest.size());
+        for (int i = 0; i < records.size(); i++) {
+            if (keys[i] == null || newest.get(keys[i].companyNumber()) == i) {
+                coalesced.add(records.get(i));
+            }
+        }
+        return coalesced;
+    }
+
+    private DeltaKey extractKey(ChsDelta delta) {
+        if (delta == null) {
+            return null;
+        }
+        String[] values = DeltaFields.readStrings(objectMapper.getFactory(), delta.getData(), COMPANY_NUMBER, DELTA_AT);
+        return values[0] != null && values[1] != null ? new DeltaKey(values[0], values[1]) : null;
+    }
+
+    private record DeltaKey(String companyNumber, String deltaAt) {
+
+    }
+}
@@ -0,0 +1,62 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache;
+
+// the container commits its pending acks straight after onPartitionsRevokedBeforeCommit, so waiting there for the
+// records still in flight on the revoked partitions gets their offsets into that commit instead of having the new
+// owner replay them. Lost partitions already belong to another member, so there is nothing left to commit for them
+public class DrainingRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final InFlightRecords inFlightRecords;
+    private final ContentFingerprintCache fingerprintCache;
+    private final DeltaMetrics deltaMetrics;
+    private final Duration drainTimeout;
+
+    public DrainingRebalanceListener(InFlightRecords inFlightRecords, ContentFingerprintCache fingerprintCache,
+            DeltaMetrics deltaMetrics, Duration drainTimeout) {
+        this.inFlightRecords = inFlightRecords;
+        this.fingerprintCache = fingerprintCache;
+        this.deltaMetrics = deltaMetrics;
+        this.drainTimeout = drainTimeout;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        deltaMetrics.recordRebalance("assigned");
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!inFlightRecords.awaitCompletion(partitions, drainTimeout)) {
+            LOGGER.info("Records still in flight on revoked partitions after %d ms will be replayed"
+                    .formatted(drainTimeout.toMillis()), Map.of("partitions", partitions.toString()));
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        deltaMetrics.recordRebalance("revoked");
+        fingerprintCache.clear(partitions);
+        CommitLatencyInterceptor.forgetPartitions(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        deltaMetrics.recordRebalance("lost");
+        fingerprintCache.clear(partitions);
+        CommitLatencyInterceptor.forgetPartitions(partitions);
+    }
+}
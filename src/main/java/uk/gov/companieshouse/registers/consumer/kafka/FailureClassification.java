@@ -0,0 +1,85 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer.SingleRecordHeader;
+import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+
+public final class FailureClassification {
+
+    public static final String RETRYABLE_HEADER = "registers-retryable";
+    public static final String CLASSIFICATION_HEADER = "registers-failure-classification";
+
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.UTF_8);
+
+    private FailureClassification() {
+    }
+
+    // added to every record the recoverers publish so InvalidMessageRouter can decide from the record alone,
+    // whichever thread the listener failed on; a single record header replaces the value from earlier attempts
+    public static Headers headers(ConsumerRecord<?, ?> consumerRecord, Exception exception) {
+        Classification classification = classify(exception);
+        return new RecordHeaders(new Header[]{
+                new SingleRecordHeader(RETRYABLE_HEADER, classification == Classification.RETRYABLE ? TRUE : FALSE),
+                new SingleRecordHeader(CLASSIFICATION_HEADER, classification.value)});
+    }
+
+    public static boolean isRetryable(Headers headers) {
+        Header header = headers.lastHeader(RETRYABLE_HEADER);
+        return header != null && Arrays.equals(TRUE, header.value());
+    }
+
+    public static boolean isRetryable(Throwable exception) {
+        return classify(exception) == Classification.RETRYABLE;
+    }
+
+    public static Classification classify(Throwable exception) {
+        // listener failures arrive wrapped by the container and by completion stages, so the whole chain is walked
+        // down to the root and the first classified exception decides; the live exception is used rather than the
+        // kafka_dlt-exception-* headers, which on a retried record describe the previous attempt
+        Set<Throwable> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Throwable current = exception;
+        while (current != null && seen.add(current)) {
+            if (current instanceof RetryableException) {
+                return Classification.RETRYABLE;
+            }
+            if (current instanceof NonRetryableException) {
+                return Classification.NON_RETRYABLE;
+            }
+            if (current instanceof InvalidPayloadException) {
+                return Classification.INVALID_PAYLOAD;
+            }
+            current = current.getCause();
+        }
+        return Classification.UNCLASSIFIED;
+    }
+
+    public enum Classification {
+        RETRYABLE("retryable"),
+        NON_RETRYABLE("non_retryable"),
+        INVALID_PAYLOAD("invalid_payload"),
+        UNCLASSIFIED("unclassified");
+
+        private final String tag;
+        private final byte[] value;
+
+        Classification(String tag) {
+            this.tag = tag;
+            this.value = tag.getBytes(StandardCharsets.UTF_8);
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+// records AsyncConsumer has handed to the router that have not completed yet, per partition. The limit stops the
+// container fetching further ahead, and waiting until every permit is back lets a revoke or a shutdown commit all
+// the work already started rather than leave it to be replayed
+@Component
+public class InFlightRecords {
+
+    private final int maxPerPartition;
+    private final ConcurrentMap<TopicPartition, Semaphore> inFlight = new ConcurrentHashMap<>();
+
+    public InFlightRecords(@Value("${consumer.max-in-flight-per-partition}") int maxPerPartition) {
+        this.maxPerPartition = maxPerPartition;
+    }
+
+    void acquire(TopicPartition partition) {
+        permits(partition).acquireUninterruptibly();
+    }
+
+    void release(TopicPartition partition) {
+        permits(partition).release();
+    }
+
+    Set<TopicPartition> partitions() {
+        return Set.copyOf(inFlight.keySet());
+    }
+
+    // false if records were still in flight when the timeout ran out
+    boolean awaitCompletion(Collection<TopicPartition> partitions, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (TopicPartition partition : partitions) {
+            Semaphore permits = inFlight.get(partition);
+            if (permits == null) {
+                continue;
+            }
+            try {
+                if (!permits.tryAcquire(maxPerPartition, Math.max(0L, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+                permits.release(maxPerPartition);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Semaphore permits(TopicPartition partition) {
+        return inFlight.computeIfAbsent(partition, topicPartition -> new Semaphore(maxPerPartition));
+    }
+}
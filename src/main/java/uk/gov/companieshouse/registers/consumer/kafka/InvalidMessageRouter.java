@@ -1,65 +1,78 @@
 package uk.gov.companieshouse.registers.consumer.kafka;
 
-import static org.springframework.kafka.support.KafkaHeaders.EXCEPTION_MESSAGE;
-import static org.springframework.kafka.support.KafkaHeaders.ORIGINAL_OFFSET;
-import static org.springframework.kafka.support.KafkaHeaders.ORIGINAL_PARTITION;
-import static org.springframework.kafka.support.KafkaHeaders.ORIGINAL_TOPIC;
 import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
 
-import java.math.BigInteger;
 import java.util.Map;
-import java.util.Optional;
-import org.apache.kafka.clients.producer.ProducerInterceptor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
-import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.kafka.FailureClassification.Classification;
 
-public class InvalidMessageRouter implements ProducerInterceptor<String, Object> {
+// diverts records that failed for any reason other than a retryable one to the invalid topic. The decision is made
+// from the exception before the record is built, so the outgoing record is the one the recoverer creates, with the
+// original headers, the dead letter headers and the failure classification. Error and invalid topic records are
+// published through producers of their own, everything else through the recoverer's template. Every send, to the
+// invalid topic included, is confirmed before the recoverer returns, so a record is only committed once it has been
+// published somewhere
+public class InvalidMessageRouter {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String LOG_MESSAGE = "Republishing record to invalid topic";
 
-    private MessageFlags messageFlags;
-    private String invalidTopic;
+    private final String errorTopic;
+    private final KafkaOperations<String, Object> errorTemplate;
+    private final String invalidTopic;
+    private final TopicPartition invalidTopicPartition;
+    private final KafkaOperations<String, Object> invalidTemplate;
 
-    @Override
-    public ProducerRecord<String, Object> onSend(ProducerRecord<String, Object> producerRecord) {
-        if (messageFlags.isRetryable()) {
-            messageFlags.destroy();
-            return producerRecord;
-        } else {
-
-            String originalTopic = Optional.ofNullable(producerRecord.headers().lastHeader(ORIGINAL_TOPIC))
-                    .map(h -> new String(h.value())).orElse(producerRecord.topic());
-            BigInteger partition = Optional.ofNullable(producerRecord.headers().lastHeader(ORIGINAL_PARTITION))
-                    .map(h -> new BigInteger(h.value())).orElse(BigInteger.valueOf(-1));
-            BigInteger offset = Optional.ofNullable(producerRecord.headers().lastHeader(ORIGINAL_OFFSET))
-                    .map(h -> new BigInteger(h.value())).orElse(BigInteger.valueOf(-1));
-            String exception = Optional.ofNullable(producerRecord.headers().lastHeader(EXCEPTION_MESSAGE))
-                    .map(h -> new String(h.value())).orElse("unknown");
-
-            LOGGER.error("""
-                    Republishing record to topic: [%s] \
-                    From: original topic: [%s], partition: [%s], offset: [%s], exception: [%s]\
-                    """.formatted(invalidTopic, originalTopic, partition, offset, exception));
-
-            return new ProducerRecord<>(invalidTopic, producerRecord.key(), producerRecord.value());
-        }
+    public InvalidMessageRouter(String errorTopic, KafkaOperations<String, Object> errorTemplate,
+            String invalidTopic, KafkaOperations<String, Object> invalidTemplate) {
+        this.errorTopic = errorTopic;
+        this.errorTemplate = errorTemplate;
+        this.invalidTopic = invalidTopic;
+        this.invalidTopicPartition = new TopicPartition(invalidTopic, -1);
+        this.invalidTemplate = invalidTemplate;
     }
 
-    @Override
-    public void onAcknowledgement(RecordMetadata metadata, Exception exception) {
-        //
+    // matches DeadLetterPublishingRecovererFactory.DeadLetterPublisherCreator, wrapping spring kafka's own resolvers
+    public DeadLetterPublishingRecoverer recoverer(
+            Function<ProducerRecord<?, ?>, KafkaOperations<?, ?>> templateResolver,
+            BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> destinationResolver) {
+        return new DeadLetterPublishingRecoverer(templateResolver(templateResolver),
+                destinationResolver(destinationResolver));
     }
 
-    @Override
-    public void close() {
-        //
+    BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> destinationResolver(
+            BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> delegate) {
+        return (consumerRecord, exception) -> {
+            TopicPartition destination = delegate.apply(consumerRecord, exception);
+            Classification classification = FailureClassification.classify(exception);
+            if (destination == null || classification == Classification.RETRYABLE) {
+                return destination;
+            }
+            LOGGER.error(LOG_MESSAGE, Map.of(
+                    "invalid_topic", invalidTopic,
+                    "topic", consumerRecord.topic(),
+                    "partition", consumerRecord.partition(),
+                    "offset", consumerRecord.offset(),
+                    "classification", classification.tag()));
+            return invalidTopicPartition;
+        };
     }
 
-    @Override
-    public void configure(Map<String, ?> configs) {
-        this.messageFlags = (MessageFlags) configs.get("message-flags");
-        this.invalidTopic = (String) configs.get("invalid-topic");
+    Function<ProducerRecord<?, ?>, KafkaOperations<?, ?>> templateResolver(
+            Function<ProducerRecord<?, ?>, KafkaOperations<?, ?>> delegate) {
+        return outRecord -> {
+            if (invalidTopic.equals(outRecord.topic())) {
+                return invalidTemplate;
+            }
+            return errorTopic.equals(outRecord.topic()) ? errorTemplate : delegate.apply(outRecord);
+        };
     }
 }
@@ -1,99 +1,320 @@
 package uk.gov.companieshouse.registers.consumer.kafka;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.retrytopic.DltStrategy;
 import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
 import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.StringUtils;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
 import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
 import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
 import uk.gov.companieshouse.registers.consumer.serdes.ChsDeltaDeserialiser;
 import uk.gov.companieshouse.registers.consumer.serdes.ChsDeltaSerialiser;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache;
 
 @Configuration
 @EnableKafka
 public class KafkaConfig {
 
     @Bean
-    public ConsumerFactory<String, ChsDelta> consumerFactory(
-            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers) {
-        return new DefaultKafkaConsumerFactory<>(
-                Map.of(
-                        ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
-                        ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class,
-                        ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class,
-                        ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class,
-                        ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, ChsDeltaDeserialiser.class,
-                        ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
-                        ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false"),
+    public ConsumerFactory<String, ChsDelta> consumerFactory(DeltaMetrics deltaMetrics, MeterRegistry meterRegistry,
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${consumer.commit-strategy}") String commitStrategy,
+            @Value("${consumer.max-poll-interval-ms}") int maxPollInterval,
+            @Value("${consumer.session-timeout-ms}") int sessionTimeout,
+            @Value("${consumer.group-instance-id}") String groupInstanceId) {
+        Map<String, Object> configs = new HashMap<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class,
+                ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class,
+                ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, ChsDeltaDeserialiser.class,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false",
+                ConsumerConfig.MAX_POLL_INTERVAL_MS_CONFIG, maxPollInterval,
+                ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, CommitLatencyInterceptor.class.getName(),
+                "delta-metrics", deltaMetrics));
+        // a rebalance only moves the partitions that change owner, rather than stopping every listener thread
+        configs.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        configs.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, sessionTimeout);
+        if (StringUtils.hasText(groupInstanceId)) {
+            // static membership is opt in, and only helps when GROUP_INSTANCE_ID names a slot that survives the
+            // process being replaced: a member restarting with the same id within the session timeout gets its
+            // partitions back without a rebalance. Static members do not leave the group when they close, so the
+            // partitions of a member that goes away for good, or comes back with another id, as an ECS task
+            // replaced on deploy or scale in does, stay unowned until the session timeout runs out. The containers
+            // add their own suffix, as each consumer needs an instance id of its own
+            configs.put(ConsumerConfig.GROUP_INSTANCE_ID_CONFIG, groupInstanceId);
+        }
+        DefaultKafkaConsumerFactory<String, ChsDelta> consumerFactory = new DefaultKafkaConsumerFactory<>(configs,
                 new StringDeserializer(),
-                new ErrorHandlingDeserializer<>(new ChsDeltaDeserialiser()));
+                new ErrorHandlingDeserializer<>(new ChsDeltaDeserialiser(deltaMetrics)));
+        // binds each consumer's client metrics, including records-lag per assigned partition
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        consumerFactory.addPostProcessor(consumer -> CommitTimingConsumer.wrap(consumer, deltaMetrics, commitStrategy));
+        return consumerFactory;
     }
 
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, ChsDelta> kafkaListenerContainerFactory(
             @Value("${consumer.concurrency}") Integer concurrency,
-            ConsumerFactory<String, ChsDelta> consumerFactory) {
+            @Value("${consumer.mode}") String mode,
+            @Value("${consumer.group-id}") String groupId,
+            @Value("${consumer.max-attempts}") int attempts,
+            @Value("${consumer.backoff-policy}") String backoffPolicy,
+            @Value("${consumer.backoff-delay}") int delay,
+            @Value("${consumer.backoff-multiplier}") double multiplier,
+            @Value("${consumer.backoff-max-delay}") long maxDelay,
+            @Value("${consumer.commit-strategy}") String commitStrategy,
+            @Value("${consumer.commit-count}") int commitCount,
+            @Value("${consumer.commit-interval-ms}") long commitInterval,
+            @Value("${consumer.drain-timeout-ms}") long drainTimeout,
+            ConsumerFactory<String, ChsDelta> consumerFactory,
+            KafkaTemplate<String, Object> kafkaTemplate,
+            InvalidMessageRouter invalidMessageRouter,
+            ContentFingerprintCache fingerprintCache,
+            PollBudgetController pollBudgetController,
+            InFlightRecords inFlightRecords,
+            DeltaMetrics deltaMetrics) {
         ConcurrentKafkaListenerContainerFactory<String, ChsDelta> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(concurrency);
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+        // a pause from ListenerContainerPauser stops delivery of the rest of the current poll rather than after it
+        factory.getContainerProperties().setPauseImmediate(true);
+        factory.getContainerProperties().setConsumerRebalanceListener(
+                new DrainingRebalanceListener(inFlightRecords, fingerprintCache, deltaMetrics,
+                        Duration.ofMillis(drainTimeout)));
+        // long enough for the record or batch being processed to finish once ListenerContainerDrainer has paused
+        factory.getContainerProperties().setShutdownTimeout(drainTimeout);
+        ConsumerMode consumerMode = ConsumerMode.of(mode);
+        if (consumerMode == ConsumerMode.BATCH) {
+            // retry topics do not support batch listeners so failed records are retried in place before being
+            // published to the error topic, or diverted to the invalid topic by InvalidMessageRouter
+            factory.setBatchListener(true);
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+            DeadLetterPublishingRecoverer recoverer = invalidMessageRouter.recoverer(outRecord -> kafkaTemplate,
+                    (consumerRecord, ex) -> new TopicPartition(
+                            "%s-%s-error".formatted(consumerRecord.topic(), groupId), -1));
+            recoverer.addHeadersFunction(FailureClassification::headers);
+            DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer,
+                    batchBackOff(backoffPolicy, attempts, delay, multiplier, maxDelay));
+            errorHandler.addNotRetryableExceptions(NonRetryableException.class, InvalidPayloadException.class);
+            factory.setCommonErrorHandler(errorHandler);
+        } else if (consumerMode == ConsumerMode.ASYNC || consumerMode == ConsumerMode.VIRTUAL) {
+            // AsyncConsumer returns a future per record; out of order completions are held back until the gaps fill
+            factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            factory.getContainerProperties().setAsyncAcks(true);
+        } else {
+            // only the record listener works through a poll one record at a time on the consumer thread, so it is the
+            // only mode whose poll loop can be cut short; batches are coalesced and async records are handed off
+            factory.setRecordInterceptor(pollBudgetController);
+            if (isBatchedCommit(commitStrategy)) {
+                // the registers PUT is idempotent, so a crash only replays the deltas since the last commit; the
+                // container also commits whatever is pending when partitions are revoked and when it stops
+                factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.COUNT_TIME);
+                factory.getContainerProperties().setAckCount(commitCount);
+                factory.getContainerProperties().setAckTime(commitInterval);
+            } else {
+                factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.RECORD);
+            }
+        }
         return factory;
     }
 
     @Bean
-    public ProducerFactory<String, Object> producerFactory(MessageFlags messageFlags,
+    public PollBudgetController pollBudgetController(KafkaListenerEndpointRegistry registry, DeltaMetrics deltaMetrics,
+            @Value("${consumer.max-poll-interval-ms}") long maxPollInterval,
+            @Value("${consumer.poll-budget-ratio}") double budgetRatio) {
+        return new PollBudgetController(registry, deltaMetrics, maxPollInterval, budgetRatio);
+    }
+
+    static boolean isBatchedCommit(String commitStrategy) {
+        return switch (commitStrategy) {
+            case "record" -> false;
+            case "batched" -> true;
+            default -> throw new IllegalArgumentException("Unknown commit strategy: " + commitStrategy);
+        };
+    }
+
+    static boolean isExponential(String backoffPolicy) {
+        return switch (backoffPolicy) {
+            case "fixed" -> false;
+            case "exponential" -> true;
+            default -> throw new IllegalArgumentException("Unknown backoff policy: " + backoffPolicy);
+        };
+    }
+
+    private static BackOff batchBackOff(String backoffPolicy, int attempts, int delay, double multiplier,
+            long maxDelay) {
+        if (!isExponential(backoffPolicy)) {
+            return new FixedBackOff(delay, attempts - 1L);
+        }
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(attempts - 1);
+        backOff.setInitialInterval(delay);
+        backOff.setMultiplier(multiplier);
+        backOff.setMaxInterval(maxDelay);
+        return backOff;
+    }
+
+    // retry topic records, and every record in batch mode other than error and invalid topic ones
+    @Bean
+    @Primary
+    public ProducerFactory<String, Object> producerFactory(MeterRegistry meterRegistry,
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${producer.retry.linger-ms}") int lingerMs,
+            @Value("${producer.retry.batch-size}") int batchSize,
+            @Value("${producer.retry.compression-type}") String compressionType,
+            @Value("${producer.retry.idempotence}") boolean idempotence) {
+        return destinationProducerFactory(meterRegistry, "retry", bootstrapServers, lingerMs, batchSize, compressionType,
+                idempotence);
+    }
+
+    @Bean
+    @Primary
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
+        return destinationTemplate(producerFactory, "retry");
+    }
+
+    @Bean
+    public ProducerFactory<String, Object> errorProducerFactory(MeterRegistry meterRegistry,
             @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${producer.error.linger-ms}") int lingerMs,
+            @Value("${producer.error.batch-size}") int batchSize,
+            @Value("${producer.error.compression-type}") String compressionType,
+            @Value("${producer.error.idempotence}") boolean idempotence) {
+        return destinationProducerFactory(meterRegistry, "error", bootstrapServers, lingerMs, batchSize, compressionType,
+                idempotence);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> errorKafkaTemplate(
+            @Qualifier("errorProducerFactory") ProducerFactory<String, Object> errorProducerFactory) {
+        return destinationTemplate(errorProducerFactory, "error");
+    }
+
+    // invalid records carry whole payloads kept for inspection, so are compressed; like the others, each send is
+    // confirmed before the failed record's offset is committed
+    @Bean
+    public ProducerFactory<String, Object> invalidProducerFactory(MeterRegistry meterRegistry,
+            @Value("${spring.kafka.bootstrap-servers}") String bootstrapServers,
+            @Value("${producer.invalid.linger-ms}") int lingerMs,
+            @Value("${producer.invalid.batch-size}") int batchSize,
+            @Value("${producer.invalid.compression-type}") String compressionType,
+            @Value("${producer.invalid.idempotence}") boolean idempotence) {
+        return destinationProducerFactory(meterRegistry, "invalid", bootstrapServers, lingerMs, batchSize, compressionType,
+                idempotence);
+    }
+
+    @Bean
+    public KafkaTemplate<String, Object> invalidKafkaTemplate(
+            @Qualifier("invalidProducerFactory") ProducerFactory<String, Object> invalidProducerFactory) {
+        return destinationTemplate(invalidProducerFactory, "invalid");
+    }
+
+    @Bean
+    public InvalidMessageRouter invalidMessageRouter(
             @Value("${consumer.topic}") String topic,
-            @Value("${consumer.group-id}") String groupId) {
-        return new DefaultKafkaProducerFactory<>(
+            @Value("${consumer.group-id}") String groupId,
+            @Qualifier("errorKafkaTemplate") KafkaTemplate<String, Object> errorKafkaTemplate,
+            @Qualifier("invalidKafkaTemplate") KafkaTemplate<String, Object> invalidKafkaTemplate) {
+        return new InvalidMessageRouter("%s-%s-error".formatted(topic, groupId), errorKafkaTemplate,
+                "%s-%s-invalid".formatted(topic, groupId), invalidKafkaTemplate);
+    }
+
+    private static ProducerFactory<String, Object> destinationProducerFactory(MeterRegistry meterRegistry,
+            String destination, String bootstrapServers, int lingerMs, int batchSize, String compressionType, boolean idempotence) {
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(
                 Map.of(
                         ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
                         ProducerConfig.ACKS_CONFIG, "all",
+                        ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                        ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                        ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                        ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, idempotence,
                         ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
-                        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, DelegatingByTypeSerializer.class,
-                        ProducerConfig.INTERCEPTOR_CLASSES_CONFIG, InvalidMessageRouter.class.getName(),
-                        "message-flags", messageFlags,
-                        "invalid-topic", "%s-%s-invalid".formatted(topic, groupId)),
+                        ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, DelegatingByTypeSerializer.class),
                 new StringSerializer(),
-                new DelegatingByTypeSerializer(
-                        Map.of(
-                                byte[].class, new ByteArraySerializer(),
-                                ChsDelta.class, new ChsDeltaSerialiser())));
+                valueSerialiser());
+        // binds each producer's client metrics, including batch-size-avg and request-latency-avg, by destination
+        producerFactory.addListener(
+                new MicrometerProducerListener<>(meterRegistry, List.of(Tag.of("destination", destination))));
+        return producerFactory;
     }
 
-    @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate(ProducerFactory<String, Object> producerFactory) {
-        return new KafkaTemplate<>(producerFactory);
+    // the template's spring.kafka.template timer is the send latency as the recoverer sees it
+    private static KafkaTemplate<String, Object> destinationTemplate(ProducerFactory<String, Object> producerFactory,
+            String destination) {
+        KafkaTemplate<String, Object> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        kafkaTemplate.setMicrometerTags(Map.of("destination", destination));
+        return kafkaTemplate;
+    }
+
+    private static DelegatingByTypeSerializer valueSerialiser() {
+        return new DelegatingByTypeSerializer(
+                Map.of(
+                        byte[].class, new ByteArraySerializer(),
+                        ChsDelta.class, new ChsDeltaSerialiser()));
     }
 
     @Bean
+    @ConditionalOnExpression("'${consumer.mode:record}' != 'batch'")
     public RetryTopicConfiguration retryTopicConfiguration(KafkaTemplate<String, Object> template,
             @Value("${consumer.group-id}") String groupId,
             @Value("${consumer.max-attempts}") int attempts,
-            @Value("${consumer.backoff-delay}") int delay) {
-        return RetryTopicConfigurationBuilder
+            @Value("${consumer.backoff-policy}") String backoffPolicy,
+            @Value("${consumer.backoff-delay}") int delay,
+            @Value("${consumer.backoff-multiplier}") double multiplier,
+            @Value("${consumer.backoff-max-delay}") long maxDelay) {
+        RetryTopicConfigurationBuilder builder = RetryTopicConfigurationBuilder
                 .newInstance()
                 .doNotAutoCreateRetryTopics() // this is necessary to prevent failing connection during loading of spring app context
-                .maxAttempts(attempts)
-                .fixedBackOff(delay)
+                .maxAttempts(attempts);
+        if (isExponential(backoffPolicy)) {
+            // a topic per delay, named after it, so a long wait never holds up records due sooner; attempts at the
+            // max delay share its topic. Jitter is added per record by RetryBackOffJitter
+            builder.exponentialBackoff(delay, multiplier, maxDelay);
+        } else {
+            builder.fixedBackOff(delay);
+        }
+        return builder
                 .useSingleTopicForSameIntervals()
                 .retryTopicSuffix("-%s-retry".formatted(groupId))
                 .dltSuffix("-%s-error".formatted(groupId))
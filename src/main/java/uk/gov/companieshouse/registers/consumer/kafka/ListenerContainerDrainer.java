@@ -0,0 +1,69 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+
+// stopped just before the listener containers: pausing them lets the record being processed finish while holding
+// back the rest of its poll, then the records already handed off are waited for, so the commit each container makes
+// as it stops covers everything that was started
+@Component
+public class ListenerContainerDrainer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final InFlightRecords inFlightRecords;
+    private final Duration drainTimeout;
+    private volatile boolean running;
+    private volatile boolean draining;
+
+    public ListenerContainerDrainer(KafkaListenerEndpointRegistry registry, InFlightRecords inFlightRecords,
+            @Value("${consumer.drain-timeout-ms}") long drainTimeout) {
+        this.registry = registry;
+        this.inFlightRecords = inFlightRecords;
+        this.drainTimeout = Duration.ofMillis(drainTimeout);
+    }
+
+    @Override
+    public void start() {
+        draining = false;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        draining = true;
+        LOGGER.info("Draining listener containers before shutdown", DataMapHolder.getLogMap());
+        registry.getListenerContainers().forEach(MessageListenerContainer::pause);
+        if (!inFlightRecords.awaitCompletion(inFlightRecords.partitions(), drainTimeout)) {
+            LOGGER.info("Records still in flight after %d ms will be replayed".formatted(drainTimeout.toMillis()),
+                    DataMapHolder.getLogMap());
+        }
+    }
+
+    // from the start of stop() onwards, so nothing else resumes the paused containers
+    public boolean isDraining() {
+        return draining;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return AbstractMessageListenerContainer.DEFAULT_PHASE + 1;
+    }
+}
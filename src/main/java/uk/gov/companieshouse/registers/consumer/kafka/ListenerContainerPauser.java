@@ -0,0 +1,91 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.apiclient.ApiCallGuard;
+import uk.gov.companieshouse.registers.consumer.apiclient.ApiCallGuard.CircuitListener;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+
+// stops fetching while the registers API circuit is open, so deltas wait on the topic rather than using up their
+// retry attempts; containers are resumed once the circuit is ready for a trial call, and again when it closes. Only
+// the containers paused here are resumed, and nothing is resumed once ListenerContainerDrainer has paused for shutdown
+@Component
+@ConditionalOnProperty(prefix = "api.guard", name = "enabled", havingValue = "true")
+public class ListenerContainerPauser implements CircuitListener, AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final ListenerContainerDrainer drainer;
+    private final Set<MessageListenerContainer> paused = new HashSet<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("registers-container-resume").daemon().factory());
+    private ScheduledFuture<?> pendingResume;
+
+    public ListenerContainerPauser(ApiCallGuard apiCallGuard, KafkaListenerEndpointRegistry registry,
+            ListenerContainerDrainer drainer) {
+        this.registry = registry;
+        this.drainer = drainer;
+        apiCallGuard.addCircuitListener(this);
+    }
+
+    @Override
+    public synchronized void opened(Duration openFor) {
+        if (drainer.isDraining()) {
+            return;
+        }
+        LOGGER.info("Registers API circuit open, pausing listener containers for %d ms".formatted(openFor.toMillis()),
+                DataMapHolder.getLogMap());
+        // a container already paused by anything else is left for that to resume
+        registry.getListenerContainers().stream()
+                .filter(container -> !container.isPauseRequested())
+                .forEach(container -> {
+                    container.pause();
+                    paused.add(container);
+                });
+        // a trial call that fails reopens the circuit, which must not be cut short by the earlier resume
+        if (pendingResume != null) {
+            pendingResume.cancel(false);
+        }
+        pendingResume = scheduler.schedule(this::resume, openFor.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void closed() {
+        if (pendingResume != null) {
+            pendingResume.cancel(false);
+        }
+        resume();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized void resume() {
+        if (!drainer.isDraining()) {
+            paused.stream()
+                    .filter(MessageListenerContainer::isPauseRequested)
+                    .forEach(container -> {
+                        LOGGER.info("Resuming listener container %s".formatted(container.getListenerId()),
+                                DataMapHolder.getLogMap());
+                        container.resume();
+                    });
+        }
+        paused.clear();
+    }
+}
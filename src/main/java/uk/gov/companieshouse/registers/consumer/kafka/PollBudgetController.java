@@ -0,0 +1,125 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.listener.RecordInterceptor;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+// keeps each poll loop of the record listener well inside max.poll.interval.ms. Processing time per record is tracked
+// for each consumer thread, and once the next record would likely take the loop past its budget, that consumer's
+// container is paused immediately: spring kafka holds back the rest of the poll and polls once with every partition
+// paused, which restarts the interval, and the held back records are handed over as soon as the pause is lifted
+public class PollBudgetController implements RecordInterceptor<String, ChsDelta> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final double SMOOTHING = 0.2;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final DeltaMetrics deltaMetrics;
+    private final long budgetNanos;
+    // spring kafka calls the interceptor only from each container's own consumer thread
+    private final ThreadLocal<PollState> states = ThreadLocal.withInitial(PollState::new);
+
+    public PollBudgetController(KafkaListenerEndpointRegistry registry, DeltaMetrics deltaMetrics,
+            long maxPollIntervalMs, double budgetRatio) {
+        this.registry = registry;
+        this.deltaMetrics = deltaMetrics;
+        this.budgetNanos = (long) (maxPollIntervalMs * 1_000_000L * Math.clamp(budgetRatio, 0.0, 1.0));
+    }
+
+    // called just before each poll
+    @Override
+    public void setupThreadState(Consumer<?, ?> consumer) {
+        PollState state = states.get();
+        long now = System.nanoTime();
+        if (state.pollStartedAt != 0L) {
+            deltaMetrics.recordPollLoop(now - state.pollStartedAt);
+        }
+        state.pollStartedAt = now;
+
+        // the container paused the consumer before this poll, so the pause has done its job; a pause requested
+        // through the parent container, by ListenerContainerPauser, is left for it to lift
+        Target paused = state.paused;
+        if (paused != null) {
+            state.paused = null;
+            if (!paused.parent().isPauseRequested()) {
+                paused.child().resume();
+            }
+        }
+    }
+
+    @Override
+    public ConsumerRecord<String, ChsDelta> intercept(ConsumerRecord<String, ChsDelta> consumerRecord,
+            Consumer<String, ChsDelta> consumer) {
+        states.get().recordStartedAt = System.nanoTime();
+        return consumerRecord;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<String, ChsDelta> consumerRecord, Consumer<String, ChsDelta> consumer) {
+        PollState state = states.get();
+        long now = System.nanoTime();
+        long took = now - state.recordStartedAt;
+        state.averageNanos = state.averageNanos == 0.0 ? took
+                : SMOOTHING * took + (1.0 - SMOOTHING) * state.averageNanos;
+
+        if (state.paused != null || now - state.pollStartedAt + state.averageNanos < budgetNanos) {
+            return;
+        }
+        TopicPartition partition = new TopicPartition(consumerRecord.topic(), consumerRecord.partition());
+        findContainer(partition).ifPresent(target -> {
+            LOGGER.info("Poll loop nearing max.poll.interval.ms, holding back the rest of the poll", Map.of(
+                    "topic", consumerRecord.topic(),
+                    "partition", consumerRecord.partition(),
+                    "offset", consumerRecord.offset(),
+                    "average_record_ms", (long) state.averageNanos / 1_000_000L));
+            deltaMetrics.recordPollCutShort();
+            state.paused = target;
+            target.child().pause();
+        });
+    }
+
+    private Optional<Target> findContainer(TopicPartition partition) {
+        for (MessageListenerContainer parent : registry.getListenerContainers()) {
+            if (parent instanceof ConcurrentMessageListenerContainer<?, ?> concurrent) {
+                for (MessageListenerContainer child : concurrent.getContainers()) {
+                    if (isAssigned(child, partition)) {
+                        return Optional.of(new Target(parent, child));
+                    }
+                }
+            } else if (isAssigned(parent, partition)) {
+                return Optional.of(new Target(parent, parent));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static boolean isAssigned(MessageListenerContainer container, TopicPartition partition) {
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        return assigned != null && assigned.contains(partition);
+    }
+
+    private record Target(MessageListenerContainer parent, MessageListenerContainer child) {
+
+    }
+
+    private static final class PollState {
+
+        private long pollStartedAt;
+        private long recordStartedAt;
+        private double averageNanos;
+        private Target paused;
+    }
+}
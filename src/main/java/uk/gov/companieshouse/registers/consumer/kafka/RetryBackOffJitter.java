@@ -0,0 +1,51 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer.SingleRecordHeader;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+// spring kafka works out the retry topic delays once at startup, so its random backoff would give each tier one fixed
+// random delay (and name the topic after it); this replaces the backoff timestamp of each retried record instead, so
+// records failing together are spread out across up to the jitter fraction of their tier's delay
+class RetryBackOffJitter {
+
+    private final long initialDelay;
+    private final double multiplier;
+    private final long maxDelay;
+    private final double jitter;
+
+    RetryBackOffJitter(long initialDelay, double multiplier, long maxDelay, double jitter) {
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.jitter = Math.clamp(jitter, 0.0, 1.0);
+    }
+
+    // the delay before the retry that follows a failed attempt, where the first attempt is 1
+    long delay(int attempt) {
+        return (long) Math.min(maxDelay, initialDelay * Math.pow(multiplier, attempt - 1.0));
+    }
+
+    Headers headers(ConsumerRecord<?, ?> consumerRecord, Exception exception) {
+        long delay = delay(attempts(consumerRecord));
+        long jittered = delay - (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+        // a single record header replaces the one added by spring kafka rather than being appended after it
+        return new RecordHeaders(new Header[]{new SingleRecordHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP,
+                BigInteger.valueOf(System.currentTimeMillis() + jittered).toByteArray())});
+    }
+
+    private static int attempts(ConsumerRecord<?, ?> consumerRecord) {
+        Header header = consumerRecord.headers().lastHeader(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS);
+        if (header == null) {
+            return 1;
+        }
+        byte[] value = header.value();
+        return value.length == Integer.BYTES ? ByteBuffer.wrap(value).getInt() : value[0];
+    }
+}
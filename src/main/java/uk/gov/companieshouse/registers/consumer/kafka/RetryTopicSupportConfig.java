@@ -0,0 +1,52 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@ConditionalOnExpression("'${consumer.mode:record}' != 'batch'")
+public class RetryTopicSupportConfig extends RetryTopicConfigurationSupport {
+
+    private final InvalidMessageRouter invalidMessageRouter;
+    private final RetryBackOffJitter jitter;
+
+    public RetryTopicSupportConfig(InvalidMessageRouter invalidMessageRouter,
+            @Value("${consumer.backoff-policy}") String backoffPolicy,
+            @Value("${consumer.backoff-delay}") int delay,
+            @Value("${consumer.backoff-multiplier}") double multiplier,
+            @Value("${consumer.backoff-max-delay}") long maxDelay,
+            @Value("${consumer.backoff-jitter}") double jitter) {
+        this.invalidMessageRouter = invalidMessageRouter;
+        this.jitter = KafkaConfig.isExponential(backoffPolicy)
+                ? new RetryBackOffJitter(delay, multiplier, maxDelay, jitter) : null;
+    }
+
+    // fully qualified as this package has a Consumer of its own
+    @Override
+    protected java.util.function.Consumer<DeadLetterPublishingRecovererFactory>
+            configureDeadLetterPublishingContainerFactory() {
+        return factory -> factory.setDeadLetterPublisherCreator(invalidMessageRouter::recoverer);
+    }
+
+    @Override
+    protected void configureCustomizers(CustomizersConfigurer customizersConfigurer) {
+        customizersConfigurer.customizeDeadLetterPublishingRecoverer(recoverer -> {
+            recoverer.addHeadersFunction(FailureClassification::headers);
+            if (jitter != null) {
+                recoverer.addHeadersFunction(jitter::headers);
+            }
+        });
+    }
+
+    // the same scheduler spring kafka registers itself when no retry topic support bean is declared
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        return new RetryTopicSchedulerWrapper(new ThreadPoolTaskScheduler());
+    }
+}
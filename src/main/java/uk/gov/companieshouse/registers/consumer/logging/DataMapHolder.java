@@ -1,6 +1,7 @@
 package uk.gov.companieshouse.registers.consumer.logging;
 
 import java.util.Map;
+import org.apache.kafka.common.TopicPartition;
 import uk.gov.companieshouse.logging.util.DataMap.Builder;
 
 public class DataMapHolder {
@@ -22,6 +23,10 @@ public class DataMapHolder {
         return DATAMAP_BUILDER.get();
     }
 
+    public static void set(Builder builder) {
+        DATAMAP_BUILDER.set(builder);
+    }
+
     public static Map<String, Object> getLogMap() {
         return DATAMAP_BUILDER.get()
                 .build()
@@ -31,4 +36,11 @@ public class DataMapHolder {
     public static String getRequestId() {
         return (String) getLogMap().get("request_id");
     }
+
+    // the partition of the record being processed, or null outside of a record's context
+    public static TopicPartition getTopicPartition() {
+        Map<String, Object> logMap = getLogMap();
+        return logMap.get("topic") instanceof String topic && logMap.get("partition") instanceof Integer partition
+                ? new TopicPartition(topic, partition) : null;
+    }
 }
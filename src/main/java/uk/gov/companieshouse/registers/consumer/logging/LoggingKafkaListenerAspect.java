@@ -2,12 +2,17 @@ package uk.gov.companieshouse.registers.consumer.logging;
 
 import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
 
+import java.math.BigInteger;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 import uk.gov.companieshouse.delta.ChsDelta;
@@ -15,6 +20,7 @@ import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
 import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
 import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
 
 @Component
 @Aspect
@@ -28,13 +34,16 @@ class LoggingKafkaListenerAspect {
     private static final String EXCEPTION_MESSAGE = "%s exception thrown";
 
     private final int maxAttempts;
+    private final DeltaMetrics deltaMetrics;
 
-    LoggingKafkaListenerAspect(@Value("${consumer.max-attempts}") int maxAttempts) {
+    LoggingKafkaListenerAspect(@Value("${consumer.max-attempts}") int maxAttempts, DeltaMetrics deltaMetrics) {
         this.maxAttempts = maxAttempts;
+        this.deltaMetrics = deltaMetrics;
     }
 
 
-    @Around("@annotation(org.springframework.kafka.annotation.KafkaListener)")
+    @Around("@annotation(org.springframework.kafka.annotation.KafkaListener) "
+            + "&& args(org.springframework.messaging.Message, ..)")
     public Object manageStructuredLogging(ProceedingJoinPoint joinPoint) throws Throwable {
 
         int retryCount = 0;
@@ -52,31 +61,62 @@ class LoggingKafkaListenerAspect {
                     .partition((Integer) joinPoint.getArgs()[3])
                     .offset((Long) joinPoint.getArgs()[4]);
 
+            // only records from a retry topic carry the attempts header
+            if (joinPoint.getArgs()[1] != null
+                    && message.getHeaders().get(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP) instanceof byte[] dueAt) {
+                deltaMetrics.recordRetry((String) joinPoint.getArgs()[2], new BigInteger(dueAt).longValue());
+            }
+
             LOGGER.info(chsDelta.getIsDelete() ? LOG_MESSAGE_DELETE_RECEIVED : LOG_MESSAGE_RECEIVED,
                     DataMapHolder.getLogMap());
 
             Object result = joinPoint.proceed();
 
+            if (result instanceof CompletableFuture<?> future) {
+                // async listeners complete after this thread has moved on, so log against the captured context
+                Map<String, Object> logMap = DataMapHolder.getLogMap();
+                final int attempt = retryCount;
+                future.whenComplete((ignored, ex) -> {
+                    if (ex == null) {
+                        deltaMetrics.recordSuccess();
+                        LOGGER.info(chsDelta.getIsDelete() ? LOG_MESSAGE_DELETE_PROCESSED : LOG_MESSAGE_PROCESSED,
+                                logMap);
+                    } else {
+                        deltaMetrics.recordFailure(ex);
+                        logException(ex instanceof Exception exception ? exception : new CompletionException(ex),
+                                attempt, logMap);
+                    }
+                });
+                return result;
+            }
+
+            deltaMetrics.recordSuccess();
             LOGGER.info(chsDelta.getIsDelete() ? LOG_MESSAGE_DELETE_PROCESSED : LOG_MESSAGE_PROCESSED,
                     DataMapHolder.getLogMap());
 
             return result;
-        } catch (RetryableException ex) {
-            // maxAttempts includes first attempt which is not a retry
-            if (retryCount >= maxAttempts - 1) {
-                LOGGER.error("Max retry attempts reached", ex, DataMapHolder.getLogMap());
-            } else {
-                LOGGER.info(EXCEPTION_MESSAGE.formatted(ex.getClass().getSimpleName()), DataMapHolder.getLogMap());
-            }
-            throw ex;
         } catch (Exception ex) {
-            LOGGER.error("Exception thrown", ex, DataMapHolder.getLogMap());
+            deltaMetrics.recordFailure(ex);
+            logException(ex, retryCount, DataMapHolder.getLogMap());
             throw ex;
         } finally {
             DataMapHolder.clear();
         }
     }
 
+    private void logException(Exception ex, int retryCount, Map<String, Object> logMap) {
+        if (ex instanceof RetryableException) {
+            // maxAttempts includes first attempt which is not a retry
+            if (retryCount >= maxAttempts - 1) {
+                LOGGER.error("Max retry attempts reached", ex, logMap);
+            } else {
+                LOGGER.info(EXCEPTION_MESSAGE.formatted(ex.getClass().getSimpleName()), logMap);
+            }
+        } else {
+            LOGGER.error("Exception thrown", ex, logMap);
+        }
+    }
+
     private ChsDelta extractChsDelta(Object payload) {
         if (payload instanceof ChsDelta chsDelta) {
             return chsDelta;
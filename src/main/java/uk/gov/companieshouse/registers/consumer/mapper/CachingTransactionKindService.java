@@ -0,0 +1,35 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import uk.gov.companieshouse.api.filinghistory.utils.TransactionKindService;
+
+public class CachingTransactionKindService extends TransactionKindService {
+
+    static final String CACHE_NAME = "registers.transaction.ids";
+
+    private final Cache<String, String> encodedIds;
+
+    public CachingTransactionKindService(String transactionIdSalt, long maxSize, Duration ttl,
+            MeterRegistry meterRegistry) {
+        super(transactionIdSalt);
+        // the salt is fixed, so an encoded id never changes; expiry only releases ids that stopped appearing
+        this.encodedIds = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, encodedIds, CACHE_NAME);
+    }
+
+    @Override
+    public String encodeTransactionId(String transactionId) {
+        if (transactionId == null) {
+            return super.encodeTransactionId(null);
+        }
+        return encodedIds.get(transactionId, super::encodeTransactionId);
+    }
+}
@@ -0,0 +1,76 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+final class DeltaDateParser {
+
+    static final DateTimeFormatter DELTA_AT_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS")
+            .withZone(ZoneId.of("Z"));
+    static final DateTimeFormatter MOVED_ON_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final int DATE_TIME_LENGTH = 14;
+    private static final int DELTA_AT_LENGTH = 20;
+
+    private DeltaDateParser() {
+    }
+
+    // the formatters also accept wider years, 24:00 and days past the end of the month (which they clamp), and
+    // own the error messages, so anything but the plain fixed-width digits CHIPS sends is left to them
+    static OffsetDateTime parseDeltaAt(String text) {
+        if (isPlainDateTime(text, DELTA_AT_LENGTH)) {
+            return OffsetDateTime.of(digits(text, 0, 4), digits(text, 4, 6), digits(text, 6, 8),
+                    digits(text, 8, 10), digits(text, 10, 12), digits(text, 12, 14),
+                    digits(text, 14, 20) * 1_000, ZoneOffset.UTC);
+        }
+        return ZonedDateTime.parse(text, DELTA_AT_FORMATTER).toOffsetDateTime();
+    }
+
+    static LocalDate parseMovedOn(String text) {
+        if (isPlainDateTime(text, DATE_TIME_LENGTH)) {
+            return LocalDate.of(digits(text, 0, 4), digits(text, 4, 6), digits(text, 6, 8));
+        }
+        return LocalDate.parse(text, MOVED_ON_FORMATTER);
+    }
+
+    private static boolean isPlainDateTime(String text, int length) {
+        if (text == null || text.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 4, 6);
+        int day = digits(text, 6, 8);
+        return year >= 1
+                && month >= 1 && month <= 12
+                && day >= 1 && day <= monthLength(year, month)
+                && digits(text, 8, 10) <= 23
+                && digits(text, 10, 12) <= 59
+                && digits(text, 12, 14) <= 59;
+    }
+
+    private static int monthLength(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+}
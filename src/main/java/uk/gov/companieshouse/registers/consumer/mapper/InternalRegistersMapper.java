@@ -2,15 +2,17 @@ package uk.gov.companieshouse.registers.consumer.mapper;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.stereotype.Component;
 import uk.gov.companieshouse.api.delta.RegisterDelta;
 import uk.gov.companieshouse.api.delta.RegisterItem;
+import uk.gov.companieshouse.api.delta.RegisterSection;
 import uk.gov.companieshouse.api.filinghistory.utils.TransactionKindService;
 import uk.gov.companieshouse.api.registers.InternalData;
 import uk.gov.companieshouse.api.registers.InternalRegisters;
@@ -24,14 +26,12 @@ import uk.gov.companieshouse.api.registers.RegisterListUsualResidentialAddress;
 import uk.gov.companieshouse.api.registers.RegisteredItems;
 import uk.gov.companieshouse.api.registers.Registers;
 import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
 
 @Component
 public class InternalRegistersMapper {
 
-    private static final DateTimeFormatter DELTA_AT_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS")
-            .withZone(ZoneId.of("Z"));
-    private static final DateTimeFormatter MOVED_ON_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-
     private static final String CHIPS_DESCRIPTION_ROA = "ROA";
     private static final String CHIPS_DESCRIPTION_SAIL = "SAIL";
     private static final String CHIPS_DESCRIPTION_COMPANIES_HOUSE = "COMPANIES_HOUSE";
@@ -44,91 +44,153 @@ public class InternalRegistersMapper {
     private static final String FILING_HISTORY_LINK_NAME = "filing";
     private static final String FILING_HISTORY_LINK_PATTERN = "/company/%s/filing-history/%s";
 
+    static final Comparator<RegisteredItems> NEWEST_FIRST = Comparator.comparing(RegisteredItems::getMovedOn)
+            .reversed();
+
     private final TransactionKindService transactionKindService;
+    private final DeltaMetrics deltaMetrics;
+    private final ParallelRegisterMapping parallelMapping;
 
-    public InternalRegistersMapper(TransactionKindService transactionKindService) {
+    public InternalRegistersMapper(TransactionKindService transactionKindService, DeltaMetrics deltaMetrics,
+            ParallelRegisterMapping parallelMapping) {
         this.transactionKindService = transactionKindService;
+        this.deltaMetrics = deltaMetrics;
+        this.parallelMapping = parallelMapping;
     }
 
     public InternalRegisters mapInternalRegisters(RegisterDelta delta, String updatedBy) {
-        InternalData internalData = new InternalData()
-                .deltaAt(mapDeltaAt(delta.getDeltaAt()))
-                .updatedBy(updatedBy);
-
-        Registers externalData = mapRegisters(delta);
-
-        return new InternalRegisters()
-                .internalData(internalData)
-                .externalData(externalData);
+        long start = System.nanoTime();
+        try {
+            InternalData internalData = new InternalData()
+                    .deltaAt(mapDeltaAt(delta.getDeltaAt()))
+                    .updatedBy(updatedBy);
+
+            Registers externalData = mapRegisters(delta);
+
+            return new InternalRegisters()
+                    .internalData(internalData)
+                    .externalData(externalData);
+        } finally {
+            deltaMetrics.recordStage(Stage.MAPPING, start);
+        }
     }
 
-    private OffsetDateTime mapDeltaAt(String deltaAt) {
-        return ZonedDateTime.parse(deltaAt, DELTA_AT_FORMATTER).toOffsetDateTime();
+    public OffsetDateTime mapDeltaAt(String deltaAt) {
+        return DeltaDateParser.parseDeltaAt(deltaAt);
     }
 
     private Registers mapRegisters(RegisterDelta delta) {
+        String companyNumber = delta.getCompanyNumber();
+        // large deltas map their registers concurrently; results are still collected in the order below,
+        // so the first invalid register reported is the same in either mode
+        boolean parallel = parallelMapping.appliesTo(countItems(delta));
+
+        Supplier<RegisterListDirectors> directors = fork(parallel, delta.getDirectors(),
+                items -> mapDirectors(companyNumber, mapRegisterItems(companyNumber, items)));
+        Supplier<RegisterListSecretaries> secretaries = fork(parallel, delta.getSecretaries(),
+                items -> mapSecretaries(companyNumber, mapRegisterItems(companyNumber, items)));
+        Supplier<RegisterListPersonsWithSignificantControl> personsWithSignificantControl = fork(parallel,
+                delta.getPersonsWithSignificantControl(),
+                items -> mapPersonsWithSignificantControl(companyNumber, mapRegisterItems(companyNumber, items)));
+        Supplier<RegisterListMembers> members = fork(parallel, delta.getMembers(),
+                items -> mapMembers(mapRegisterItems(companyNumber, items)));
+        Supplier<RegisterListUsualResidentialAddress> usualResidentialAddress = fork(parallel,
+                delta.getUsualResidentialAddress(),
+                items -> mapUsualResidentialAddress(mapRegisterItems(companyNumber, items)));
+        Supplier<RegisterListLLPMembers> llpMembers = fork(parallel, delta.getLlpMembers(),
+                items -> mapLlpMembers(mapRegisterItems(companyNumber, items)));
+        Supplier<RegisterListLLPUsualResidentialAddress> llpUsualResidentialAddress = fork(parallel,
+                delta.getLlpUsualResidentialAddress(),
+                items -> mapLlpUsualResidentialAddress(mapRegisterItems(companyNumber, items)));
+
         Registers registers = new Registers();
+        registers.setDirectors(directors.get());
+        registers.setSecretaries(secretaries.get());
+        registers.setPersonsWithSignificantControl(personsWithSignificantControl.get());
+        registers.setMembers(members.get());
+        registers.setUsualResidentialAddress(usualResidentialAddress.get());
+        registers.setLlpMembers(llpMembers.get());
+        registers.setLlpUsualResidentialAddress(llpUsualResidentialAddress.get());
+        return registers;
+    }
 
-        if (delta.getDirectors() != null) {
-            RegisterListDirectors register = new RegisterListDirectors();
-            register.setRegisterType(RegisterListDirectors.RegisterTypeEnum.DIRECTORS);
-            register.setItems(mapRegisterItems(delta.getCompanyNumber(), delta.getDirectors().getItems()));
-            register.setLinks(mapOfficerRegisterLinks(delta.getCompanyNumber(), register.getItems(),
-                    RegisterListDirectors.RegisterTypeEnum.DIRECTORS.getValue()));
-            registers.setDirectors(register);
+    private <T> Supplier<T> fork(boolean parallel, RegisterSection section, Function<List<RegisterItem>, T> mapping) {
+        if (section == null) {
+            return () -> null;
         }
-
-        if (delta.getSecretaries() != null) {
-            RegisterListSecretaries register = new RegisterListSecretaries();
-            register.setRegisterType(RegisterListSecretaries.RegisterTypeEnum.SECRETARIES);
-            register.setItems(mapRegisterItems(delta.getCompanyNumber(), delta.getSecretaries().getItems()));
-            register.setLinks(mapOfficerRegisterLinks(delta.getCompanyNumber(), register.getItems(),
-                    RegisterListSecretaries.RegisterTypeEnum.SECRETARIES.getValue()));
-            registers.setSecretaries(register);
+        if (parallel) {
+            return parallelMapping.fork(() -> mapping.apply(section.getItems()));
         }
+        T register = mapping.apply(section.getItems());
+        return () -> register;
+    }
 
-        if (delta.getPersonsWithSignificantControl() != null) {
-            RegisterListPersonsWithSignificantControl register = new RegisterListPersonsWithSignificantControl();
-            register.setRegisterType(
-                    RegisterListPersonsWithSignificantControl.RegisterTypeEnum.PERSONS_WITH_SIGNIFICANT_CONTROL);
-            register.setItems(
-                    mapRegisterItems(delta.getCompanyNumber(), delta.getPersonsWithSignificantControl().getItems()));
-            register.setLinks(mapPscRegisterLinks(delta.getCompanyNumber(), register.getItems()));
-            registers.setPersonsWithSignificantControl(register);
-        }
+    private static int countItems(RegisterDelta delta) {
+        return Stream.of(delta.getDirectors(), delta.getSecretaries(), delta.getPersonsWithSignificantControl(),
+                        delta.getMembers(), delta.getUsualResidentialAddress(), delta.getLlpMembers(),
+                        delta.getLlpUsualResidentialAddress())
+                .filter(section -> section != null && section.getItems() != null)
+                .mapToInt(section -> section.getItems().size())
+                .sum();
+    }
 
-        if (delta.getMembers() != null) {
-            RegisterListMembers register = new RegisterListMembers();
-            register.setItems(mapRegisterItems(delta.getCompanyNumber(), delta.getMembers().getItems()));
-            register.setRegisterType(RegisterListMembers.RegisterTypeEnum.MEMBERS);
-            registers.setMembers(register);
-        }
+    // the register builders take items already sorted newest first, so they can be shared with
+    // RegistersUpsertDecoder, which maps items as it reads them
+    RegisterListDirectors mapDirectors(String companyNumber, List<RegisteredItems> items) {
+        RegisterListDirectors register = new RegisterListDirectors();
+        register.setRegisterType(RegisterListDirectors.RegisterTypeEnum.DIRECTORS);
+        register.setItems(items);
+        register.setLinks(mapOfficerRegisterLinks(companyNumber, items,
+                RegisterListDirectors.RegisterTypeEnum.DIRECTORS.getValue()));
+        return register;
+    }
 
-        if (delta.getUsualResidentialAddress() != null) {
-            RegisterListUsualResidentialAddress register = new RegisterListUsualResidentialAddress();
-            register.setRegisterType(RegisterListUsualResidentialAddress.RegisterTypeEnum.USUAL_RESIDENTIAL_ADDRESS);
-            register.setItems(
-                    mapRegisterItems(delta.getCompanyNumber(), delta.getUsualResidentialAddress().getItems()));
-            registers.setUsualResidentialAddress(register);
-        }
+    RegisterListSecretaries mapSecretaries(String companyNumber, List<RegisteredItems> items) {
+        RegisterListSecretaries register = new RegisterListSecretaries();
+        register.setRegisterType(RegisterListSecretaries.RegisterTypeEnum.SECRETARIES);
+        register.setItems(items);
+        register.setLinks(mapOfficerRegisterLinks(companyNumber, items,
+                RegisterListSecretaries.RegisterTypeEnum.SECRETARIES.getValue()));
+        return register;
+    }
 
-        if (delta.getLlpMembers() != null) {
-            RegisterListLLPMembers register = new RegisterListLLPMembers();
-            register.setRegisterType(RegisterListLLPMembers.RegisterTypeEnum.LLP_MEMBERS);
-            register.setItems(mapRegisterItems(delta.getCompanyNumber(), delta.getLlpMembers().getItems()));
-            registers.setLlpMembers(register);
-        }
+    RegisterListPersonsWithSignificantControl mapPersonsWithSignificantControl(String companyNumber,
+            List<RegisteredItems> items) {
+        RegisterListPersonsWithSignificantControl register = new RegisterListPersonsWithSignificantControl();
+        register.setRegisterType(
+                RegisterListPersonsWithSignificantControl.RegisterTypeEnum.PERSONS_WITH_SIGNIFICANT_CONTROL);
+        register.setItems(items);
+        register.setLinks(mapPscRegisterLinks(companyNumber, items));
+        return register;
+    }
 
-        if (delta.getLlpUsualResidentialAddress() != null) {
-            RegisterListLLPUsualResidentialAddress register = new RegisterListLLPUsualResidentialAddress();
-            register.setRegisterType(
-                    RegisterListLLPUsualResidentialAddress.RegisterTypeEnum.LLP_USUAL_RESIDENTIAL_ADDRESS);
-            register.setItems(
-                    mapRegisterItems(delta.getCompanyNumber(), delta.getLlpUsualResidentialAddress().getItems()));
-            registers.setLlpUsualResidentialAddress(register);
-        }
+    RegisterListMembers mapMembers(List<RegisteredItems> items) {
+        RegisterListMembers register = new RegisterListMembers();
+        register.setItems(items);
+        register.setRegisterType(RegisterListMembers.RegisterTypeEnum.MEMBERS);
+        return register;
+    }
 
-        return registers;
+    RegisterListUsualResidentialAddress mapUsualResidentialAddress(List<RegisteredItems> items) {
+        RegisterListUsualResidentialAddress register = new RegisterListUsualResidentialAddress();
+        register.setRegisterType(RegisterListUsualResidentialAddress.RegisterTypeEnum.USUAL_RESIDENTIAL_ADDRESS);
+        register.setItems(items);
+        return register;
+    }
+
+    RegisterListLLPMembers mapLlpMembers(List<RegisteredItems> items) {
+        RegisterListLLPMembers register = new RegisterListLLPMembers();
+        register.setRegisterType(RegisterListLLPMembers.RegisterTypeEnum.LLP_MEMBERS);
+        register.setItems(items);
+        return register;
+    }
+
+    RegisterListLLPUsualResidentialAddress mapLlpUsualResidentialAddress(List<RegisteredItems> items) {
+        RegisterListLLPUsualResidentialAddress register = new RegisterListLLPUsualResidentialAddress();
+        register.setRegisterType(
+                RegisterListLLPUsualResidentialAddress.RegisterTypeEnum.LLP_USUAL_RESIDENTIAL_ADDRESS);
+        register.setItems(items);
+        return register;
     }
 
     private Object mapOfficerRegisterLinks(String companyNumber, List<RegisteredItems> items, String registerType) {
@@ -154,14 +216,20 @@ public class InternalRegistersMapper {
 
     private List<RegisteredItems> mapRegisterItems(String companyNumber, List<RegisterItem> items) {
         return items.stream()
-                .map(item -> new RegisteredItems()
-                        .registerMovedTo(mapRegisterMovedTo(item.getChipsDescription()))
-                        .movedOn(mapMovedOn(item))
-                        .links(mapRegisterItemLinks(companyNumber, item)))
-                .sorted((item1, item2) -> item2.getMovedOn().compareTo(item1.getMovedOn()))
+                .map(item -> mapRegisteredItem(companyNumber, item.getChipsDescription(), item.getMovedOn(),
+                        item.getTransactionId()))
+                .sorted(NEWEST_FIRST)
                 .toList();
     }
 
+    RegisteredItems mapRegisteredItem(String companyNumber, String chipsDescription, String movedOn,
+            String transactionId) {
+        return new RegisteredItems()
+                .registerMovedTo(mapRegisterMovedTo(chipsDescription))
+                .movedOn(mapMovedOn(movedOn))
+                .links(mapRegisterItemLinks(companyNumber, transactionId));
+    }
+
     private RegisteredItems.RegisterMovedToEnum mapRegisterMovedTo(String chipsDescription) {
         return switch (chipsDescription) {
             case CHIPS_DESCRIPTION_ROA -> RegisteredItems.RegisterMovedToEnum.REGISTERED_OFFICE;
@@ -173,15 +241,15 @@ public class InternalRegistersMapper {
         };
     }
 
-    private LocalDate mapMovedOn(RegisterItem item) {
-        return LocalDate.parse(item.getMovedOn(), MOVED_ON_FORMATTER);
+    private LocalDate mapMovedOn(String movedOn) {
+        return DeltaDateParser.parseMovedOn(movedOn);
     }
 
-    private Object mapRegisterItemLinks(String companyNumber, RegisterItem item) {
-        if (StringUtils.isEmpty(item.getTransactionId())) {
+    private Object mapRegisterItemLinks(String companyNumber, String transactionId) {
+        if (StringUtils.isEmpty(transactionId)) {
             return null;
         }
-        String encodedId = transactionKindService.encodeTransactionId(item.getTransactionId());
+        String encodedId = transactionKindService.encodeTransactionId(transactionId);
         return Map.of(FILING_HISTORY_LINK_NAME, FILING_HISTORY_LINK_PATTERN.formatted(companyNumber, encodedId));
     }
 }
\ No newline at end of file
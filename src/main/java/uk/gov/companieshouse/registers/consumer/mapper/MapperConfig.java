@@ -1,5 +1,8 @@
 package uk.gov.companieshouse.registers.consumer.mapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -9,7 +12,21 @@ import uk.gov.companieshouse.api.filinghistory.utils.TransactionKindService;
 public class MapperConfig {
 
     @Bean
-    public TransactionKindService transactionKindService(@Value("${transaction-id-salt}") String transactionIdSalt) {
-        return new TransactionKindService(transactionIdSalt);
+    public TransactionKindService transactionKindService(@Value("${transaction-id-salt}") String transactionIdSalt,
+            @Value("${transaction-id-cache.max-size}") long cacheMaxSize,
+            @Value("${transaction-id-cache.ttl-ms}") long cacheTtl,
+            MeterRegistry meterRegistry) {
+        return new CachingTransactionKindService(transactionIdSalt, cacheMaxSize, Duration.ofMillis(cacheTtl),
+                meterRegistry);
+    }
+
+    @Bean
+    public ParallelRegisterMapping parallelRegisterMapping(@Value("${mapper.parallel.enabled}") boolean enabled,
+            @Value("${mapper.parallel.threshold}") int threshold,
+            @Value("${mapper.parallel.max-threads}") int maxThreads) {
+        // mapping is CPU bound, so a small fork-join pool shared by all listener threads rather than virtual threads
+        return enabled
+                ? new ParallelRegisterMapping(new ForkJoinPool(maxThreads), threshold)
+                : ParallelRegisterMapping.disabled();
     }
 }
@@ -0,0 +1,47 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+public class ParallelRegisterMapping implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final int threshold;
+
+    public ParallelRegisterMapping(ExecutorService executor, int threshold) {
+        this.executor = executor;
+        this.threshold = threshold;
+    }
+
+    public static ParallelRegisterMapping disabled() {
+        return new ParallelRegisterMapping(null, Integer.MAX_VALUE);
+    }
+
+    boolean appliesTo(int itemCount) {
+        return executor != null && itemCount >= threshold;
+    }
+
+    <T> Supplier<T> fork(Supplier<T> task) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(task, executor);
+        return () -> {
+            try {
+                return future.join();
+            } catch (CompletionException ex) {
+                // rethrow what the mapping threw, so an invalid delta fails the same way in either mode
+                if (ex.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw ex;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.close();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+
+public record RegistersUpsert(String companyNumber, String deltaAt, InternalRegisters request) {
+
+}
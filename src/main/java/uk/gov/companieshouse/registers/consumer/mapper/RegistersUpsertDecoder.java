@@ -0,0 +1,170 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.delta.RegisterDelta;
+import uk.gov.companieshouse.api.registers.InternalData;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.api.registers.RegisteredItems;
+import uk.gov.companieshouse.api.registers.Registers;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+
+@Component
+public class RegistersUpsertDecoder {
+
+    private static final String COMPANY_NUMBER = "company_number";
+    private static final String DELTA_AT = "delta_at";
+    private static final String ITEMS = "items";
+    private static final String TRANSACTION_ID = "transaction_id";
+    private static final String CHIPS_DESCRIPTION = "chips_description";
+    private static final String MOVED_ON = "moved_on";
+
+    private final RegistersDeltaDeserialiser deserialiser;
+    private final InternalRegistersMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final DeltaMetrics deltaMetrics;
+    private final boolean streaming;
+
+    public RegistersUpsertDecoder(RegistersDeltaDeserialiser deserialiser, InternalRegistersMapper mapper,
+            ObjectMapper objectMapper, DeltaMetrics deltaMetrics,
+            @Value("${consumer.streaming-decoder}") boolean streaming) {
+        this.deserialiser = deserialiser;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.deltaMetrics = deltaMetrics;
+        this.streaming = streaming;
+    }
+
+    public RegistersUpsert decode(String data, String updatedBy) {
+        if (streaming) {
+            long start = System.nanoTime();
+            try {
+                return stream(data, updatedBy);
+            } catch (IOException | RuntimeException ex) {
+                // anything the streaming path does not expect is replayed through the databind path below,
+                // so a bad delta fails with the same exception and log entry as before
+            } finally {
+                deltaMetrics.recordStage(Stage.STREAMING_DECODE, start);
+            }
+        }
+        RegisterDelta registerDelta = deserialiser.deserialiseRegistersDelta(data);
+        return new RegistersUpsert(registerDelta.getCompanyNumber(), registerDelta.getDeltaAt(),
+                mapper.mapInternalRegisters(registerDelta, updatedBy));
+    }
+
+    private RegistersUpsert stream(String data, String updatedBy) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(data)) {
+            expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+
+            String companyNumber = null;
+            String deltaAt = null;
+            Registers registers = new Registers();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case COMPANY_NUMBER -> companyNumber = readString(parser, value);
+                    case DELTA_AT -> deltaAt = readString(parser, value);
+                    default -> readRegister(parser, value, field, companyNumber, registers);
+                }
+            }
+            expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+
+            InternalData internalData = new InternalData()
+                    .deltaAt(mapper.mapDeltaAt(deltaAt))
+                    .updatedBy(updatedBy);
+            return new RegistersUpsert(companyNumber, deltaAt, new InternalRegisters()
+                    .internalData(internalData)
+                    .externalData(registers));
+        }
+    }
+
+    private void readRegister(JsonParser parser, JsonToken value, String field, String companyNumber,
+            Registers registers) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return;
+        }
+        // links are built as items are read, which needs the company number CHIPS sends first
+        if (companyNumber == null) {
+            throw new JsonParseException(parser, "Register before company number");
+        }
+        List<RegisteredItems> items = readSection(parser, value, companyNumber);
+        switch (field) {
+            case "directors" -> registers.setDirectors(mapper.mapDirectors(companyNumber, items));
+            case "secretaries" -> registers.setSecretaries(mapper.mapSecretaries(companyNumber, items));
+            case "persons_with_significant_control" -> registers.setPersonsWithSignificantControl(
+                    mapper.mapPersonsWithSignificantControl(companyNumber, items));
+            case "members" -> registers.setMembers(mapper.mapMembers(items));
+            case "usual_residential_address" ->
+                    registers.setUsualResidentialAddress(mapper.mapUsualResidentialAddress(items));
+            case "llp_members" -> registers.setLlpMembers(mapper.mapLlpMembers(items));
+            case "llp_usual_residential_address" ->
+                    registers.setLlpUsualResidentialAddress(mapper.mapLlpUsualResidentialAddress(items));
+            default -> throw new JsonParseException(parser, "Unknown field: " + field);
+        }
+    }
+
+    private List<RegisteredItems> readSection(JsonParser parser, JsonToken value, String companyNumber)
+            throws IOException {
+        expect(parser, value, JsonToken.START_OBJECT);
+        List<RegisteredItems> items = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (!ITEMS.equals(parser.currentName())) {
+                throw new JsonParseException(parser, "Unknown field: " + parser.currentName());
+            }
+            items = readItems(parser, parser.nextToken(), companyNumber);
+        }
+        if (items == null) {
+            throw new JsonParseException(parser, "Register without items");
+        }
+        items.sort(InternalRegistersMapper.NEWEST_FIRST);
+        return items;
+    }
+
+    private List<RegisteredItems> readItems(JsonParser parser, JsonToken value, String companyNumber)
+            throws IOException {
+        expect(parser, value, JsonToken.START_ARRAY);
+        List<RegisteredItems> items = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            expect(parser, parser.currentToken(), JsonToken.START_OBJECT);
+            String transactionId = null;
+            String chipsDescription = null;
+            String movedOn = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case TRANSACTION_ID -> transactionId = readString(parser, fieldValue);
+                    case CHIPS_DESCRIPTION -> chipsDescription = readString(parser, fieldValue);
+                    case MOVED_ON -> movedOn = readString(parser, fieldValue);
+                    default -> throw new JsonParseException(parser, "Unknown field: " + field);
+                }
+            }
+            items.add(mapper.mapRegisteredItem(companyNumber, chipsDescription, movedOn, transactionId));
+        }
+        return items;
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(parser, value, JsonToken.VALUE_STRING);
+        return parser.getText();
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected %s but was %s".formatted(expected, actual));
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package uk.gov.companieshouse.registers.consumer.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.registers.consumer.kafka.FailureClassification;
+
+@Component
+public class DeltaMetrics {
+
+    static final String STAGE_TIMER = "registers.delta.stage";
+    static final String API_TIMER = "registers.api.request";
+    static final String OUTCOME_COUNTER = "registers.delta.outcome";
+    static final String SKIPPED_COUNTER = "registers.delta.skipped";
+    static final String FRESHNESS_TIMER = "registers.delta.freshness";
+    static final String COMMIT_LATENCY_TIMER = "registers.kafka.record.commit.latency";
+    static final String RETRY_WAIT_TIMER = "registers.delta.retry.wait";
+    static final String COMMIT_TIMER = "registers.kafka.commit";
+    static final String POLL_LOOP_TIMER = "registers.kafka.poll.loop";
+    static final String POLL_CUT_SHORT_COUNTER = "registers.kafka.poll.cut.short";
+    static final String REBALANCE_COUNTER = "registers.kafka.rebalance";
+    static final String FIRST_RECORD_TIMER = "registers.startup.first.record";
+    static final String NO_RESPONSE = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    private final Map<ApiOperation, Timer> freshnessTimers = new EnumMap<>(ApiOperation.class);
+    private final Map<SkipReason, Counter> skippedCounters = new EnumMap<>(SkipReason.class);
+    private final Timer pollLoopTimer;
+    private final Counter pollCutShortCounter;
+    private final Timer firstRecordTimer;
+    private final AtomicBoolean firstRecordSeen = new AtomicBoolean();
+
+    public DeltaMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder(STAGE_TIMER)
+                    .description("Time spent in each stage of processing a registers delta")
+                    .tag("stage", stage.tag)
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder(OUTCOME_COUNTER)
+                    .description("Registers deltas processed, by outcome")
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry));
+        }
+        for (ApiOperation operation : ApiOperation.values()) {
+            freshnessTimers.put(operation, Timer.builder(FRESHNESS_TIMER)
+                    .description("Time from the delta_at of a registers delta to the registers API accepting it")
+                    .tag("operation", operation.tag)
+                    .register(meterRegistry));
+        }
+        for (SkipReason reason : SkipReason.values()) {
+            skippedCounters.put(reason, Counter.builder(SKIPPED_COUNTER)
+                    .description("Registers deltas handled without calling the registers API, by reason")
+                    .tag("reason", reason.tag)
+                    .register(meterRegistry));
+        }
+        this.pollLoopTimer = Timer.builder(POLL_LOOP_TIMER)
+                .description("Time between consecutive polls of a consumer, bounded by max.poll.interval.ms")
+                .register(meterRegistry);
+        this.pollCutShortCounter = Counter.builder(POLL_CUT_SHORT_COUNTER)
+                .description("Polls whose remaining records were held back to keep within max.poll.interval.ms")
+                .register(meterRegistry);
+        this.firstRecordTimer = Timer.builder(FIRST_RECORD_TIMER)
+                .description("Time from the JVM starting to the first registers delta being processed")
+                .register(meterRegistry);
+    }
+
+    // a registry without children discards everything, for deserialisers kafka creates reflectively
+    public static DeltaMetrics noop() {
+        return new DeltaMetrics(new CompositeMeterRegistry());
+    }
+
+    public void recordStage(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordApiCall(ApiOperation operation, Integer statusCode, long startNanos) {
+        Timer.builder(API_TIMER)
+                .description("Time spent calling the registers API")
+                .tag("operation", operation.tag)
+                .tag("status", statusCode != null ? statusCode.toString() : NO_RESPONSE)
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordFreshness(ApiOperation operation, OffsetDateTime deltaAt) {
+        // negative durations from clock skew between CHIPS and this service are dropped by the timer
+        freshnessTimers.get(operation).record(Duration.between(deltaAt.toInstant(), Instant.now()));
+    }
+
+    public void recordCommitLatency(String topic, long recordTimestamp, long committedAt) {
+        Timer.builder(COMMIT_LATENCY_TIMER)
+                .description("Time from a record's Kafka timestamp to its offset being committed")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .record(committedAt - recordTimestamp, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordCommit(String strategy, boolean failed, long startNanos) {
+        Timer.builder(COMMIT_TIMER)
+                .description("Time spent committing consumer offsets to the broker, by commit strategy")
+                .tag("strategy", strategy)
+                .tag("outcome", failed ? "failure" : "success")
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPollLoop(long nanos) {
+        pollLoopTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordPollCutShort() {
+        pollCutShortCounter.increment();
+    }
+
+    public void recordRebalance(String event) {
+        Counter.builder(REBALANCE_COUNTER)
+                .description("Partition rebalance callbacks, by event")
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // one per record taken from a retry topic; how far past its backoff it was picked up grows with the tier's backlog
+    public void recordRetry(String topic, long dueAt) {
+        Timer.builder(RETRY_WAIT_TIMER)
+                .description("Time a retried registers delta waited beyond its backoff, by retry topic")
+                .tag("topic", topic)
+                .register(meterRegistry)
+                .record(Math.max(0L, System.currentTimeMillis() - dueAt), TimeUnit.MILLISECONDS);
+    }
+
+    // a skipped delta leaves the registers API as it was, delta_at included, so it is kept apart from those applied
+    public void recordSkipped(SkipReason reason) {
+        skippedCounters.get(reason).increment();
+    }
+
+    public void recordSuccess() {
+        outcomeCounters.get(Outcome.SUCCESS).increment();
+        recordFirstRecord();
+    }
+
+    public void recordFailure(Throwable failure) {
+        outcomeCounters.get(FailureClassification.isRetryable(failure) ? Outcome.RETRYABLE : Outcome.NON_RETRYABLE)
+                .increment();
+        recordFirstRecord();
+    }
+
+    // whatever its outcome, as the startup benchmark compares images against an API that may not accept the delta
+    private void recordFirstRecord() {
+        if (!firstRecordSeen.get() && firstRecordSeen.compareAndSet(false, true)) {
+            firstRecordTimer.record(System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public enum Stage {
+        AVRO_DECODE("avro_decode"),
+        JSON_DECODE("json_decode"),
+        MAPPING("mapping"),
+        STREAMING_DECODE("streaming_decode");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum ApiOperation {
+        UPSERT("upsert"),
+        DELETE("delete");
+
+        private final String tag;
+
+        ApiOperation(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    public enum SkipReason {
+        STALE("stale"),
+        UNCHANGED("unchanged");
+
+        private final String tag;
+
+        SkipReason(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private enum Outcome {
+        SUCCESS("success"),
+        RETRYABLE("retryable"),
+        NON_RETRYABLE("non_retryable");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+}
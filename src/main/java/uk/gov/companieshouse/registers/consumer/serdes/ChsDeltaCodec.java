@@ -0,0 +1,45 @@
+package uk.gov.companieshouse.registers.consumer.serdes;
+
+import java.io.OutputStream;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.reflect.ReflectDatumReader;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import uk.gov.companieshouse.delta.ChsDelta;
+
+final class ChsDeltaCodec {
+
+    // Avro datum readers and writers are safe to share between threads once built; binary decoders and encoders
+    // are not, so those are reused per thread instead
+    private static final DatumReader<ChsDelta> READER = new ReflectDatumReader<>(ChsDelta.class);
+    private static final DatumWriter<ChsDelta> WRITER = new ReflectDatumWriter<>(ChsDelta.class);
+    private static final ThreadLocal<BinaryDecoder> DECODER = new ThreadLocal<>();
+    private static final ThreadLocal<BinaryEncoder> ENCODER = new ThreadLocal<>();
+
+    private ChsDeltaCodec() {
+    }
+
+    static DatumReader<ChsDelta> reader() {
+        return READER;
+    }
+
+    static DatumWriter<ChsDelta> writer() {
+        return WRITER;
+    }
+
+    static BinaryDecoder decoder(byte[] data) {
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(data, DECODER.get());
+        DECODER.set(decoder);
+        return decoder;
+    }
+
+    static BinaryEncoder encoder(OutputStream outputStream) {
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(outputStream, ENCODER.get());
+        ENCODER.set(encoder);
+        return encoder;
+    }
+}
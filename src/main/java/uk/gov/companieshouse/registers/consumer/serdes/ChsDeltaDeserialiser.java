@@ -4,31 +4,40 @@ import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
 
 import java.io.IOException;
 import org.apache.avro.AvroRuntimeException;
-import org.apache.avro.io.DatumReader;
-import org.apache.avro.io.Decoder;
-import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.reflect.ReflectDatumReader;
 import org.apache.kafka.common.serialization.Deserializer;
 import uk.gov.companieshouse.delta.ChsDelta;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
 import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
 import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
 
 public class ChsDeltaDeserialiser implements Deserializer<ChsDelta> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
 
+    private final DeltaMetrics deltaMetrics;
+
+    public ChsDeltaDeserialiser() {
+        this(DeltaMetrics.noop());
+    }
+
+    public ChsDeltaDeserialiser(DeltaMetrics deltaMetrics) {
+        this.deltaMetrics = deltaMetrics;
+    }
+
     @Override
     public ChsDelta deserialize(String topic, byte[] data) {
+        long start = System.nanoTime();
         try {
-            Decoder decoder = DecoderFactory.get().binaryDecoder(data, null);
-            DatumReader<ChsDelta> reader = new ReflectDatumReader<>(ChsDelta.class);
-            return reader.read(null, decoder);
+            return ChsDeltaCodec.reader().read(null, ChsDeltaCodec.decoder(data));
         } catch (IOException | AvroRuntimeException ex) {
             String payload = new String(data);
             LOGGER.error("Error deserialising message payload: [%s]".formatted(payload), ex, DataMapHolder.getLogMap());
             throw new InvalidPayloadException("Invalid payload: [%s]".formatted(payload), ex);
+        } finally {
+            deltaMetrics.recordStage(Stage.AVRO_DECODE, start);
         }
     }
 }
@@ -4,8 +4,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import org.apache.avro.io.DatumWriter;
 import org.apache.avro.io.Encoder;
-import org.apache.avro.io.EncoderFactory;
-import org.apache.avro.reflect.ReflectDatumWriter;
 import org.apache.kafka.common.serialization.Serializer;
 import uk.gov.companieshouse.delta.ChsDelta;
 import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
@@ -15,7 +13,7 @@ public class ChsDeltaSerialiser implements Serializer<ChsDelta> {
     @Override
     public byte[] serialize(String topic, ChsDelta data) {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        Encoder encoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
+        Encoder encoder = ChsDeltaCodec.encoder(outputStream);
         DatumWriter<ChsDelta> writer = getDatumWriter();
         try {
             writer.write(data, encoder);
@@ -26,6 +24,6 @@ public class ChsDeltaSerialiser implements Serializer<ChsDelta> {
     }
 
     public DatumWriter<ChsDelta> getDatumWriter() {
-        return new ReflectDatumWriter<>(ChsDelta.class);
+        return ChsDeltaCodec.writer();
     }
 }
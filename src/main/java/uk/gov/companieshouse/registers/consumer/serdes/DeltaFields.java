@@ -0,0 +1,51 @@
+package uk.gov.companieshouse.registers.consumer.serdes;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+
+public final class DeltaFields {
+
+    private DeltaFields() {
+    }
+
+    // streams over the top level of a delta and returns the string values of the given fields, in the same order,
+    // stopping as soon as all of them are found; the rest of the delta is skipped over rather than bound. Fields that
+    // are missing or not strings come back as null, and unreadable deltas as all nulls, so that they fail when they
+    // are deserialised in full
+    public static String[] readStrings(JsonFactory factory, String data, String... fields) {
+        String[] values = new String[fields.length];
+        if (data == null) {
+            return values;
+        }
+        int remaining = fields.length;
+        try (JsonParser parser = factory.createParser(data)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return values;
+            }
+            while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                int index = indexOf(fields, parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (index >= 0 && values[index] == null && value == JsonToken.VALUE_STRING) {
+                    values[index] = parser.getText();
+                    remaining--;
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException ex) {
+            return new String[fields.length];
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] fields, String field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
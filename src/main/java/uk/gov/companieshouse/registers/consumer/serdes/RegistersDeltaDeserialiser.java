@@ -11,32 +11,49 @@ import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
 import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
 import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
 
 @Component
 public class RegistersDeltaDeserialiser {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String COMPANY_NUMBER = "company_number";
+
     private final ObjectMapper objectMapper;
+    private final DeltaMetrics deltaMetrics;
 
-    RegistersDeltaDeserialiser(ObjectMapper objectMapper) {
+    RegistersDeltaDeserialiser(ObjectMapper objectMapper, DeltaMetrics deltaMetrics) {
         this.objectMapper = objectMapper;
+        this.deltaMetrics = deltaMetrics;
     }
 
     public RegisterDelta deserialiseRegistersDelta(String data) {
+        long start = System.nanoTime();
         try {
             return objectMapper.readValue(data, RegisterDelta.class);
         } catch (JsonProcessingException ex) {
             LOGGER.error("Unable to deserialise delta: [%s]".formatted(data), ex, DataMapHolder.getLogMap());
             throw new NonRetryableException("Unable to deserialise delta", ex);
+        } finally {
+            deltaMetrics.recordStage(Stage.JSON_DECODE, start);
         }
     }
 
     public RegistersDeleteDelta deserialiseRegistersDeleteDelta(String data) {
+        long start = System.nanoTime();
         try {
             return objectMapper.readValue(data, RegistersDeleteDelta.class);
         } catch (JsonProcessingException ex) {
             LOGGER.error("Unable to deserialise DELETE delta: [%s]".formatted(data), ex, DataMapHolder.getLogMap());
             throw new NonRetryableException("Unable to deserialise DELETE delta", ex);
+        } finally {
+            deltaMetrics.recordStage(Stage.JSON_DECODE, start);
         }
     }
+
+    public String readCompanyNumber(String data) {
+        // only the top level company number is needed to order work
+        return DeltaFields.readStrings(objectMapper.getFactory(), data, COMPANY_NUMBER)[0];
+    }
 }
@@ -0,0 +1,9 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.util.concurrent.CompletableFuture;
+import uk.gov.companieshouse.delta.ChsDelta;
+
+public interface AsyncDeltaServiceRouter {
+
+    CompletableFuture<Void> route(ChsDelta delta);
+}
@@ -0,0 +1,56 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.logging.util.DataMap;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+
+@Component
+public class CompanySequencer {
+
+    private final ConcurrentMap<String, CompletableFuture<Void>> companyTasks = new ConcurrentHashMap<>();
+
+    public CompletableFuture<Void> submit(String companyNumber, Supplier<CompletableFuture<Void>> task) {
+        if (companyNumber == null) {
+            return unwrap(task.get());
+        }
+
+        // a task starts only once the previous one for the same company has finished, whatever its outcome,
+        // so the registers API sees each company's deltas in offset order
+        DataMap.Builder logContext = DataMapHolder.get();
+        CompletableFuture<Void> next = companyTasks.compute(companyNumber, (key, previous) -> previous == null
+                ? task.get()
+                : previous.handle((result, ex) -> null).thenCompose(ignored -> startDeferred(task, logContext)));
+        next.whenComplete((result, ex) -> companyTasks.remove(companyNumber, next));
+        return unwrap(next);
+    }
+
+    private static CompletableFuture<Void> startDeferred(Supplier<CompletableFuture<Void>> task,
+            DataMap.Builder logContext) {
+        DataMapHolder.set(logContext);
+        try {
+            return task.get();
+        } finally {
+            DataMapHolder.clear();
+        }
+    }
+
+    // the retry topic classifies the exception itself, so strip the wrapper added by CompletableFuture stages
+    private static CompletableFuture<Void> unwrap(CompletableFuture<Void> future) {
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        future.whenComplete((result, ex) -> {
+            if (ex == null) {
+                completion.complete(null);
+            } else if (ex instanceof CompletionException && ex.getCause() != null) {
+                completion.completeExceptionally(ex.getCause());
+            } else {
+                completion.completeExceptionally(ex);
+            }
+        });
+        return completion;
+    }
+}
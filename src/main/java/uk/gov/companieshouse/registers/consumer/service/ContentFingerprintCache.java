@@ -0,0 +1,140 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+
+@Component
+public class ContentFingerprintCache {
+
+    static final int UNKNOWN_SOURCE = 0;
+
+    private final long ttlMillis;
+    private final ObjectMapper objectMapper;
+    private final DeltaStateStore store;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter skipped;
+    // when each source partition was last revoked or lost; a fingerprint taken from a partition before then is
+    // treated as gone, so a rebalance never has to visit the fingerprints themselves
+    private final Map<Integer, Long> revokedAt = new ConcurrentHashMap<>();
+    private volatile long anyRevokedAt;
+
+    public ContentFingerprintCache(@Value("${consumer.fingerprint-cache.ttl-ms}") long ttlMillis,
+            ObjectMapper objectMapper, DeltaStateStore store, MeterRegistry meterRegistry) {
+        // expiry bounds how long a change made to the registers outside this consumer can be masked
+        this.ttlMillis = ttlMillis;
+        this.objectMapper = objectMapper;
+        this.store = store;
+        this.hits = lookupCounter("hit", meterRegistry);
+        this.misses = lookupCounter("miss", meterRegistry);
+        this.skipped = Counter.builder("registers.delta.duplicate.skipped")
+                .description("Registers upserts skipped as unchanged since the last one applied for the company")
+                .register(meterRegistry);
+    }
+
+    public Fingerprint fingerprint(InternalRegisters request) {
+        if (ttlMillis <= 0 || request.getExternalData() == null) {
+            return null;
+        }
+
+        // internal_data is left out as it carries delta_at and updated_by, which change on every re-emitted delta
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            objectMapper.writeValue(new DigestOutputStream(OutputStream.nullOutputStream(), digest),
+                    request.getExternalData());
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+            return new Fingerprint(hash.getLong(), hash.getLong());
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            // without a fingerprint the upsert is always sent
+            return null;
+        }
+    }
+
+    public boolean isUnchanged(String companyNumber, Fingerprint fingerprint) {
+        if (companyNumber == null || fingerprint == null) {
+            return false;
+        }
+
+        DeltaState last = store.get(companyNumber);
+        if (last == null || last.fingerprint() == null
+                || System.currentTimeMillis() - last.fingerprintedAt() >= ttlMillis || isRevoked(last)) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+
+        if (fingerprint.equals(last.fingerprint())) {
+            skipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void applied(String companyNumber, Fingerprint fingerprint, TopicPartition source) {
+        if (companyNumber == null || fingerprint == null) {
+            return;
+        }
+        long fingerprintedAt = System.currentTimeMillis();
+        int fingerprintSource = sourceOf(source);
+        store.update(companyNumber, state -> state.withFingerprint(fingerprint, fingerprintedAt, fingerprintSource));
+    }
+
+    public void invalidate(String companyNumber) {
+        if (companyNumber != null && store.get(companyNumber) != null) {
+            store.update(companyNumber, DeltaState::withoutFingerprint);
+        }
+    }
+
+    // another instance may change a company's registers while its partition is assigned elsewhere, so the
+    // fingerprints taken from revoked or lost partitions are dropped and warm up again from the deltas that follow;
+    // those from partitions still owned are kept
+    public void clear(Collection<TopicPartition> partitions) {
+        long now = System.currentTimeMillis();
+        for (TopicPartition partition : partitions) {
+            revokedAt.put(sourceOf(partition), now);
+        }
+        anyRevokedAt = now;
+    }
+
+    private boolean isRevoked(DeltaState last) {
+        // a fingerprint applied outside of a record's context could have come from any partition
+        long invalidatedAt = last.fingerprintSource() == UNKNOWN_SOURCE ? anyRevokedAt
+                : revokedAt.getOrDefault(last.fingerprintSource(), 0L);
+        return last.fingerprintedAt() <= invalidatedAt;
+    }
+
+    // a hash, so the source fits a fixed size slot of the mapped file store; partitions sharing a hash only ever
+    // have their fingerprints dropped together, never kept when they should not be
+    static int sourceOf(TopicPartition partition) {
+        if (partition == null) {
+            return UNKNOWN_SOURCE;
+        }
+        int hash = partition.hashCode();
+        return hash == UNKNOWN_SOURCE ? 1 : hash;
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("registers.delta.fingerprint.cache")
+                .description("Lookups of the last applied registers fingerprint for a company")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public record Fingerprint(long high, long low) {
+
+    }
+}
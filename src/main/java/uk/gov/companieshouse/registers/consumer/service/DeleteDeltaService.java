@@ -1,25 +1,69 @@
 package uk.gov.companieshouse.registers.consumer.service;
 
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.time.DateTimeException;
 import org.springframework.stereotype.Component;
 import uk.gov.companieshouse.api.delta.RegistersDeleteDelta;
 import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
 import uk.gov.companieshouse.registers.consumer.apiclient.RegistersApiClient;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.SkipReason;
 import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
 
 @Component
 public class DeleteDeltaService implements DeltaService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String STALE_DELTA_MESSAGE = "Skipping delete, a later delta has already been applied";
+
     private final RegistersDeltaDeserialiser deserialiser;
     private final RegistersApiClient apiClient;
+    private final InternalRegistersMapper mapper;
+    private final DeltaMetrics deltaMetrics;
+    private final StaleDeltaCache staleDeltaCache;
+    private final ContentFingerprintCache fingerprintCache;
 
-    public DeleteDeltaService(RegistersDeltaDeserialiser deserialiser, RegistersApiClient apiClient) {
+    public DeleteDeltaService(RegistersDeltaDeserialiser deserialiser, RegistersApiClient apiClient,
+            InternalRegistersMapper mapper, DeltaMetrics deltaMetrics, StaleDeltaCache staleDeltaCache,
+            ContentFingerprintCache fingerprintCache) {
         this.deserialiser = deserialiser;
         this.apiClient = apiClient;
+        this.mapper = mapper;
+        this.deltaMetrics = deltaMetrics;
+        this.staleDeltaCache = staleDeltaCache;
+        this.fingerprintCache = fingerprintCache;
     }
 
     @Override
     public void process(ChsDelta delta) {
         RegistersDeleteDelta deleteDelta = deserialiser.deserialiseRegistersDeleteDelta(delta.getData());
+        if (staleDeltaCache.isStale(deleteDelta.getCompanyNumber(), deleteDelta.getDeltaAt())) {
+            LOGGER.info(STALE_DELTA_MESSAGE, DataMapHolder.getLogMap());
+            deltaMetrics.recordSkipped(SkipReason.STALE);
+            return;
+        }
+        // dropped before the call, so a delete that fails part way cannot leave an upsert being skipped
+        fingerprintCache.invalidate(deleteDelta.getCompanyNumber());
         apiClient.deleteRegisters(deleteDelta.getCompanyNumber());
+        staleDeltaCache.applied(deleteDelta.getCompanyNumber(), deleteDelta.getDeltaAt());
+        recordFreshness(deleteDelta.getDeltaAt());
+    }
+
+    private void recordFreshness(String deltaAt) {
+        // the delete has already been applied, so a delta_at that cannot be read only costs the measurement
+        if (deltaAt == null) {
+            return;
+        }
+        try {
+            deltaMetrics.recordFreshness(ApiOperation.DELETE, mapper.mapDeltaAt(deltaAt));
+        } catch (DateTimeException ex) {
+            // not measured
+        }
     }
 }
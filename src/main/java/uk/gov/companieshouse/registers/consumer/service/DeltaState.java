@@ -0,0 +1,23 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+// appliedAt and fingerprintedAt are epoch millis so that expiry still holds for state read back after a restart;
+// fingerprintSource identifies the partition of the record the fingerprint came from
+public record DeltaState(String deltaAt, long appliedAt, Fingerprint fingerprint, long fingerprintedAt,
+        int fingerprintSource) {
+
+    static final DeltaState EMPTY = new DeltaState(null, 0L, null, 0L, 0);
+
+    DeltaState withDeltaAt(String deltaAt, long appliedAt) {
+        return new DeltaState(deltaAt, appliedAt, fingerprint, fingerprintedAt, fingerprintSource);
+    }
+
+    DeltaState withFingerprint(Fingerprint fingerprint, long fingerprintedAt, int fingerprintSource) {
+        return new DeltaState(deltaAt, appliedAt, fingerprint, fingerprintedAt, fingerprintSource);
+    }
+
+    DeltaState withoutFingerprint() {
+        return fingerprint == null ? this : new DeltaState(deltaAt, appliedAt, null, 0L, 0);
+    }
+}
@@ -0,0 +1,16 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.util.function.UnaryOperator;
+
+public interface DeltaStateStore extends AutoCloseable {
+
+    DeltaState get(String companyNumber);
+
+    // the update is given DeltaState.EMPTY for a company with no state, and applied atomically per company
+    void update(String companyNumber, UnaryOperator<DeltaState> update);
+
+    long size();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,51 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class InMemoryDeltaStateStore implements DeltaStateStore {
+
+    private final int maxSize;
+    private final Map<String, DeltaState> states;
+
+    public InMemoryDeltaStateStore(int maxSize) {
+        this.maxSize = maxSize;
+        // access order, so the least recently used company is evicted once the cap is reached
+        this.states = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DeltaState> eldest) {
+                return size() > InMemoryDeltaStateStore.this.maxSize;
+            }
+        };
+    }
+
+    @Override
+    public DeltaState get(String companyNumber) {
+        synchronized (states) {
+            return states.get(companyNumber);
+        }
+    }
+
+    @Override
+    public void update(String companyNumber, UnaryOperator<DeltaState> update) {
+        if (maxSize <= 0) {
+            return;
+        }
+        synchronized (states) {
+            states.put(companyNumber, update.apply(states.getOrDefault(companyNumber, DeltaState.EMPTY)));
+        }
+    }
+
+    @Override
+    public long size() {
+        synchronized (states) {
+            return states.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        // nothing is kept beyond the process
+    }
+}
@@ -0,0 +1,251 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.UnaryOperator;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+// an open addressed hash table of fixed size slots in a memory mapped file, so state is off heap and is still there
+// after a restart; company numbers are at most 8 characters, which lets a key be packed into a single long
+public class MappedFileDeltaStateStore implements DeltaStateStore {
+
+    static final String FILE_NAME = "registers-delta-state.bin";
+
+    private static final int MAGIC = 0x52444c54;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 64;
+    private static final int KEY = 0;
+    private static final int DELTA_AT = 8;
+    private static final int DELTA_AT_LENGTH = 20;
+    private static final int FINGERPRINT_SOURCE = 28;
+    private static final int APPLIED_AT = 32;
+    private static final int FINGERPRINT_HIGH = 40;
+    private static final int FINGERPRINT_LOW = 48;
+    private static final int FINGERPRINTED_AT = 56;
+    private static final int MAX_PROBES = 32;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int slots;
+    private final int probes;
+    private long size;
+
+    public MappedFileDeltaStateStore(Path directory, int maxSize) {
+        // at most half full, so probe sequences stay short
+        long capacity = Long.highestOneBit(Math.max(maxSize, 1) * 2L - 1) << 1;
+        long fileSize = HEADER_SIZE + capacity * SLOT_SIZE;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Delta state store of %d companies is too large".formatted(maxSize));
+        }
+        this.slots = (int) capacity;
+        this.probes = Math.min(MAX_PROBES, slots);
+
+        try {
+            Files.createDirectories(directory);
+            this.channel = FileChannel.open(directory.resolve(FILE_NAME),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.lock = tryLock(channel);
+            if (lock == null) {
+                channel.close();
+                throw new IllegalStateException("Delta state store in %s is in use by another process"
+                        .formatted(directory));
+            }
+            // a file written with a different size or layout is started afresh rather than rehashed
+            boolean reset = channel.size() != fileSize;
+            this.buffer = channel.map(MapMode.READ_WRITE, 0, fileSize);
+            if (reset || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != slots) {
+                initialise();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to open delta state store in %s".formatted(directory), ex);
+        }
+
+        // the partitions this instance owned may have been processed elsewhere while it was down
+        clearFingerprints();
+        for (int slot = 0; slot < slots; slot++) {
+            if (buffer.getLong(offset(slot) + KEY) != 0L) {
+                size++;
+            }
+        }
+    }
+
+    @Override
+    public synchronized DeltaState get(String companyNumber) {
+        long key = pack(companyNumber);
+        if (key == 0L) {
+            return null;
+        }
+        int home = home(key);
+        for (int i = 0; i < probes; i++) {
+            int offset = offset((home + i) & (slots - 1));
+            long slotKey = buffer.getLong(offset + KEY);
+            if (slotKey == key) {
+                return read(offset);
+            }
+            if (slotKey == 0L) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void update(String companyNumber, UnaryOperator<DeltaState> update) {
+        long key = pack(companyNumber);
+        if (key == 0L) {
+            return;
+        }
+        int offset = findSlot(key);
+        long slotKey = buffer.getLong(offset + KEY);
+        DeltaState current = slotKey == key ? read(offset) : DeltaState.EMPTY;
+        if (slotKey == 0L) {
+            size++;
+        }
+        buffer.putLong(offset + KEY, key);
+        write(offset, update.apply(current));
+    }
+
+    @Override
+    public synchronized long size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            lock.release();
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Unable to close delta state store", ex);
+        }
+    }
+
+    // the slot already holding the key, else the first free one, else the least recently written within reach
+    private int findSlot(long key) {
+        int home = home(key);
+        int oldest = offset(home);
+        long oldestWrite = Long.MAX_VALUE;
+        for (int i = 0; i < probes; i++) {
+            int offset = offset((home + i) & (slots - 1));
+            long slotKey = buffer.getLong(offset + KEY);
+            if (slotKey == key || slotKey == 0L) {
+                return offset;
+            }
+            long lastWrite = Math.max(buffer.getLong(offset + APPLIED_AT), buffer.getLong(offset + FINGERPRINTED_AT));
+            if (lastWrite < oldestWrite) {
+                oldest = offset;
+                oldestWrite = lastWrite;
+            }
+        }
+        return oldest;
+    }
+
+    private DeltaState read(int offset) {
+        byte[] deltaAt = new byte[DELTA_AT_LENGTH];
+        int length = 0;
+        while (length < DELTA_AT_LENGTH && (deltaAt[length] = buffer.get(offset + DELTA_AT + length)) != 0) {
+            length++;
+        }
+        long fingerprintedAt = buffer.getLong(offset + FINGERPRINTED_AT);
+        return new DeltaState(
+                length == 0 ? null : new String(deltaAt, 0, length, StandardCharsets.US_ASCII),
+                buffer.getLong(offset + APPLIED_AT),
+                fingerprintedAt == 0L ? null : new Fingerprint(buffer.getLong(offset + FINGERPRINT_HIGH),
+                        buffer.getLong(offset + FINGERPRINT_LOW)),
+                fingerprintedAt,
+                fingerprintedAt == 0L ? 0 : buffer.getInt(offset + FINGERPRINT_SOURCE));
+    }
+
+    private void write(int offset, DeltaState state) {
+        String deltaAt = isStorable(state.deltaAt()) ? state.deltaAt() : "";
+        for (int i = 0; i < DELTA_AT_LENGTH; i++) {
+            buffer.put(offset + DELTA_AT + i, i < deltaAt.length() ? (byte) deltaAt.charAt(i) : 0);
+        }
+        buffer.putLong(offset + APPLIED_AT, state.appliedAt());
+        Fingerprint fingerprint = state.fingerprint();
+        buffer.putLong(offset + FINGERPRINT_HIGH, fingerprint == null ? 0L : fingerprint.high());
+        buffer.putLong(offset + FINGERPRINT_LOW, fingerprint == null ? 0L : fingerprint.low());
+        buffer.putInt(offset + FINGERPRINT_SOURCE, fingerprint == null ? 0 : state.fingerprintSource());
+        // a fingerprint is only read back while fingerprintedAt is set, so it must never be stored as 0
+        buffer.putLong(offset + FINGERPRINTED_AT, fingerprint == null ? 0L : Math.max(state.fingerprintedAt(), 1L));
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException ex) {
+            // already held within this JVM
+            return null;
+        }
+    }
+
+    // only run while the store is opened; a rebalance drops fingerprints in ContentFingerprintCache by partition
+    // instead, so it never scans the table while holding the lock the listener threads wait on
+    private void clearFingerprints() {
+        for (int slot = 0; slot < slots; slot++) {
+            int offset = offset(slot);
+            buffer.putLong(offset + FINGERPRINT_HIGH, 0L);
+            buffer.putLong(offset + FINGERPRINT_LOW, 0L);
+            buffer.putLong(offset + FINGERPRINTED_AT, 0L);
+            buffer.putInt(offset + FINGERPRINT_SOURCE, 0);
+        }
+    }
+
+    private void initialise() {
+        for (int i = 0; i < HEADER_SIZE + slots * SLOT_SIZE; i += Long.BYTES) {
+            buffer.putLong(i, 0L);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slots);
+    }
+
+    private int home(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(slots)));
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static boolean isStorable(String deltaAt) {
+        if (deltaAt == null || deltaAt.length() > DELTA_AT_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < deltaAt.length(); i++) {
+            char c = deltaAt.charAt(i);
+            if (c < 0x21 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // printable ASCII only, so a packed key is never 0, which marks a free slot
+    private static long pack(String companyNumber) {
+        if (companyNumber == null || companyNumber.isEmpty() || companyNumber.length() > Long.BYTES) {
+            return 0L;
+        }
+        long key = 0L;
+        for (int i = 0; i < Long.BYTES; i++) {
+            char c = i < companyNumber.length() ? companyNumber.charAt(i) : 0;
+            if (i < companyNumber.length() && (c < 0x21 || c > 0x7e)) {
+                return 0L;
+            }
+            key = key << 8 | c;
+        }
+        return key;
+    }
+}
@@ -0,0 +1,129 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.delta.RegistersDeleteDelta;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+import uk.gov.companieshouse.registers.consumer.apiclient.AsyncRegistersApiClient;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsert;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsertDecoder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.SkipReason;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+@Component
+@ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "async")
+public class NonBlockingDeltaServiceRouter implements AsyncDeltaServiceRouter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String STALE_UPSERT_MESSAGE = "Skipping upsert, a later delta has already been applied";
+    private static final String UNCHANGED_UPSERT_MESSAGE = "Skipping upsert, registers are unchanged since the last delta applied";
+    private static final String STALE_DELETE_MESSAGE = "Skipping delete, a later delta has already been applied";
+
+    private final RegistersDeltaDeserialiser deserialiser;
+    private final RegistersUpsertDecoder decoder;
+    private final InternalRegistersMapper mapper;
+    private final AsyncRegistersApiClient apiClient;
+    private final CompanySequencer sequencer;
+    private final DeltaMetrics deltaMetrics;
+    private final StaleDeltaCache staleDeltaCache;
+    private final ContentFingerprintCache fingerprintCache;
+
+    public NonBlockingDeltaServiceRouter(RegistersDeltaDeserialiser deserialiser, RegistersUpsertDecoder decoder,
+            InternalRegistersMapper mapper, AsyncRegistersApiClient apiClient, CompanySequencer sequencer,
+            DeltaMetrics deltaMetrics, StaleDeltaCache staleDeltaCache, ContentFingerprintCache fingerprintCache) {
+        this.deserialiser = deserialiser;
+        this.decoder = decoder;
+        this.mapper = mapper;
+        this.apiClient = apiClient;
+        this.sequencer = sequencer;
+        this.deltaMetrics = deltaMetrics;
+        this.staleDeltaCache = staleDeltaCache;
+        this.fingerprintCache = fingerprintCache;
+    }
+
+    // the same checks as UpsertDeltaService and DeleteDeltaService, made inside the sequenced task so they see
+    // every earlier delta for the company once it has completed
+    @Override
+    public CompletableFuture<Void> route(ChsDelta delta) {
+        if (!delta.getIsDelete()) {
+            RegistersUpsert upsert = decoder.decode(delta.getData(), delta.getContextId());
+            return sequencer.submit(upsert.companyNumber(), () -> upsert(upsert));
+        } else {
+            RegistersDeleteDelta deleteDelta = deserialiser.deserialiseRegistersDeleteDelta(delta.getData());
+            return sequencer.submit(deleteDelta.getCompanyNumber(), () -> delete(deleteDelta));
+        }
+    }
+
+    private CompletableFuture<Void> upsert(RegistersUpsert upsert) {
+        String companyNumber = upsert.companyNumber();
+        if (staleDeltaCache.isStale(companyNumber, upsert.deltaAt())) {
+            LOGGER.info(STALE_UPSERT_MESSAGE, DataMapHolder.getLogMap());
+            deltaMetrics.recordSkipped(SkipReason.STALE);
+            return CompletableFuture.completedFuture(null);
+        }
+        Fingerprint fingerprint = fingerprintCache.fingerprint(upsert.request());
+        if (fingerprintCache.isUnchanged(companyNumber, fingerprint)) {
+            LOGGER.info(UNCHANGED_UPSERT_MESSAGE, DataMapHolder.getLogMap());
+            deltaMetrics.recordSkipped(SkipReason.UNCHANGED);
+            return CompletableFuture.completedFuture(null);
+        }
+        OffsetDateTime deltaAt = upsert.request().getInternalData().getDeltaAt();
+        // the call completes on another thread, so the record's partition is taken while its context is to hand
+        TopicPartition source = DataMapHolder.getTopicPartition();
+        return apiClient.upsertRegisters(companyNumber, upsert.request()).whenComplete((result, ex) -> {
+            if (ex == null) {
+                staleDeltaCache.applied(companyNumber, upsert.deltaAt());
+                fingerprintCache.applied(companyNumber, fingerprint, source);
+                recordFreshness(ApiOperation.UPSERT, deltaAt);
+            }
+        });
+    }
+
+    private CompletableFuture<Void> delete(RegistersDeleteDelta deleteDelta) {
+        String companyNumber = deleteDelta.getCompanyNumber();
+        if (staleDeltaCache.isStale(companyNumber, deleteDelta.getDeltaAt())) {
+            LOGGER.info(STALE_DELETE_MESSAGE, DataMapHolder.getLogMap());
+            deltaMetrics.recordSkipped(SkipReason.STALE);
+            return CompletableFuture.completedFuture(null);
+        }
+        // dropped before the call, so a delete that fails part way cannot leave an upsert being skipped
+        fingerprintCache.invalidate(companyNumber);
+        return apiClient.deleteRegisters(companyNumber).whenComplete((result, ex) -> {
+            if (ex == null) {
+                staleDeltaCache.applied(companyNumber, deleteDelta.getDeltaAt());
+                recordFreshness(ApiOperation.DELETE, readDeltaAt(deleteDelta.getDeltaAt()));
+            }
+        });
+    }
+
+    private void recordFreshness(ApiOperation operation, OffsetDateTime deltaAt) {
+        if (deltaAt != null) {
+            deltaMetrics.recordFreshness(operation, deltaAt);
+        }
+    }
+
+    private OffsetDateTime readDeltaAt(String deltaAt) {
+        // delete deltas are not otherwise validated on delta_at, so one that cannot be read only costs the measurement
+        if (deltaAt == null) {
+            return null;
+        }
+        try {
+            return mapper.mapDeltaAt(deltaAt);
+        } catch (DateTimeException ex) {
+            return null;
+        }
+    }
+}
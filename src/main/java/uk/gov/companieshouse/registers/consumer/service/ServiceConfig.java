@@ -0,0 +1,30 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ServiceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "virtual")
+    public ExecutorService virtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("registers-delta-", 0).factory());
+    }
+
+    @Bean(destroyMethod = "close")
+    public DeltaStateStore deltaStateStore(@Value("${consumer.state-store.type}") String type,
+            @Value("${consumer.state-store.max-size}") int maxSize,
+            @Value("${consumer.state-store.directory}") String directory) {
+        return switch (type) {
+            case "memory" -> new InMemoryDeltaStateStore(maxSize);
+            case "mapped-file" -> new MappedFileDeltaStateStore(Path.of(directory), maxSize);
+            default -> throw new IllegalArgumentException("Unknown delta state store type: " + type);
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StaleDeltaCache {
+
+    private static final int DELTA_AT_LENGTH = 20;
+
+    private final long ttlMillis;
+    private final DeltaStateStore store;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter skipped;
+
+    public StaleDeltaCache(@Value("${consumer.stale-cache.ttl-ms}") long ttlMillis, DeltaStateStore store,
+            MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlMillis;
+        this.store = store;
+
+        Gauge.builder("registers.delta.stale.cache.size", store, DeltaStateStore::size)
+                .description("Companies with a cached last applied delta_at")
+                .register(meterRegistry);
+        this.hits = lookupCounter("hit", meterRegistry);
+        this.misses = lookupCounter("miss", meterRegistry);
+        this.skipped = Counter.builder("registers.delta.stale.skipped")
+                .description("Registers deltas skipped as older than one already applied for the company")
+                .register(meterRegistry);
+    }
+
+    public boolean isStale(String companyNumber, String deltaAt) {
+        if (ttlMillis <= 0 || companyNumber == null || !isComparable(deltaAt)) {
+            return false;
+        }
+
+        DeltaState last = store.get(companyNumber);
+        if (last == null || !isComparable(last.deltaAt())
+                || System.currentTimeMillis() - last.appliedAt() >= ttlMillis) {
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+
+        // a delta with the same delta_at may be a redelivery of one that failed part way, so only older ones are skipped
+        if (deltaAt.compareTo(last.deltaAt()) < 0) {
+            skipped.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void applied(String companyNumber, String deltaAt) {
+        if (ttlMillis <= 0 || companyNumber == null || !isComparable(deltaAt)) {
+            return;
+        }
+
+        long appliedAt = System.currentTimeMillis();
+        store.update(companyNumber, state ->
+                isComparable(state.deltaAt()) && state.deltaAt().compareTo(deltaAt) > 0
+                        ? state.withDeltaAt(state.deltaAt(), appliedAt)
+                        : state.withDeltaAt(deltaAt, appliedAt));
+    }
+
+    // delta_at is fixed width yyyyMMddHHmmssSSSSSS in UTC, so string order is time order without parsing;
+    // anything else is left for the mapper to reject
+    private static boolean isComparable(String deltaAt) {
+        if (deltaAt == null || deltaAt.length() != DELTA_AT_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < DELTA_AT_LENGTH; i++) {
+            char c = deltaAt.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Counter lookupCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("registers.delta.stale.cache")
+                .description("Lookups of the last applied delta_at for a company")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
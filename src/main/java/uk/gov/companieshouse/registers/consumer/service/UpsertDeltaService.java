@@ -1,32 +1,63 @@
 package uk.gov.companieshouse.registers.consumer.service;
 
+import static uk.gov.companieshouse.registers.consumer.Application.NAMESPACE;
+
 import org.springframework.stereotype.Component;
-import uk.gov.companieshouse.api.delta.RegisterDelta;
-import uk.gov.companieshouse.api.registers.InternalRegisters;
 import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
 import uk.gov.companieshouse.registers.consumer.apiclient.RegistersApiClient;
-import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
-import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsert;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsertDecoder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.SkipReason;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
 
 @Component
 public class UpsertDeltaService implements DeltaService {
 
-    private final RegistersDeltaDeserialiser deserialiser;
-    private final InternalRegistersMapper mapper;
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String STALE_DELTA_MESSAGE = "Skipping upsert, a later delta has already been applied";
+    private static final String UNCHANGED_DELTA_MESSAGE = "Skipping upsert, registers are unchanged since the last delta applied";
+
+    private final RegistersUpsertDecoder decoder;
     private final RegistersApiClient apiClient;
+    private final DeltaMetrics deltaMetrics;
+    private final StaleDeltaCache staleDeltaCache;
+    private final ContentFingerprintCache fingerprintCache;
 
-    public UpsertDeltaService(RegistersDeltaDeserialiser deserialiser, InternalRegistersMapper mapper,
-            RegistersApiClient apiClient) {
-        this.deserialiser = deserialiser;
-        this.mapper = mapper;
+    public UpsertDeltaService(RegistersUpsertDecoder decoder, RegistersApiClient apiClient,
+            DeltaMetrics deltaMetrics, StaleDeltaCache staleDeltaCache, ContentFingerprintCache fingerprintCache) {
+        this.decoder = decoder;
         this.apiClient = apiClient;
+        this.deltaMetrics = deltaMetrics;
+        this.staleDeltaCache = staleDeltaCache;
+        this.fingerprintCache = fingerprintCache;
     }
 
-
     @Override
     public void process(ChsDelta delta) {
-        RegisterDelta registerDelta = deserialiser.deserialiseRegistersDelta(delta.getData());
-        InternalRegisters apiRequest = mapper.mapInternalRegisters(registerDelta, delta.getContextId());
-        apiClient.upsertRegisters(registerDelta.getCompanyNumber(), apiRequest);
+        RegistersUpsert upsert = decoder.decode(delta.getData(), delta.getContextId());
+        // both checks go on what this consumer has applied itself, never on the delta_at the registers API holds,
+        // so a change made by another writer is only seen once the cache entries expire
+        if (staleDeltaCache.isStale(upsert.companyNumber(), upsert.deltaAt())) {
+            LOGGER.info(STALE_DELTA_MESSAGE, DataMapHolder.getLogMap());
+            deltaMetrics.recordSkipped(SkipReason.STALE);
+            return;
+        }
+        Fingerprint fingerprint = fingerprintCache.fingerprint(upsert.request());
+        if (fingerprintCache.isUnchanged(upsert.companyNumber(), fingerprint)) {
+            // nothing is sent, so the registers API keeps the delta_at of the last upsert; the delta is not recorded
+            // as applied, leaving older deltas to be judged against what the API actually holds
+            LOGGER.info(UNCHANGED_DELTA_MESSAGE, DataMapHolder.getLogMap());
+            deltaMetrics.recordSkipped(SkipReason.UNCHANGED);
+            return;
+        }
+        apiClient.upsertRegisters(upsert.companyNumber(), upsert.request());
+        staleDeltaCache.applied(upsert.companyNumber(), upsert.deltaAt());
+        fingerprintCache.applied(upsert.companyNumber(), fingerprint, DataMapHolder.getTopicPartition());
+        deltaMetrics.recordFreshness(ApiOperation.UPSERT, upsert.request().getInternalData().getDeltaAt());
     }
 }
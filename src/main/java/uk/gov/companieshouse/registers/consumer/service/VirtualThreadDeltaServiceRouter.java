@@ -0,0 +1,48 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.logging.util.DataMap;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+
+@Component
+@ConditionalOnProperty(prefix = "consumer", name = "mode", havingValue = "virtual")
+public class VirtualThreadDeltaServiceRouter implements AsyncDeltaServiceRouter {
+
+    private final DeltaServiceRouter router;
+    private final RegistersDeltaDeserialiser deserialiser;
+    private final CompanySequencer sequencer;
+    private final Executor executor;
+
+    public VirtualThreadDeltaServiceRouter(DeltaServiceRouter router, RegistersDeltaDeserialiser deserialiser,
+            CompanySequencer sequencer, @Qualifier("virtualThreadExecutor") Executor executor) {
+        this.router = router;
+        this.deserialiser = deserialiser;
+        this.sequencer = sequencer;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<Void> route(ChsDelta delta) {
+        String companyNumber = deserialiser.readCompanyNumber(delta.getData());
+        DataMap.Builder logContext = DataMapHolder.get();
+        if (companyNumber != null) {
+            logContext.companyNumber(companyNumber);
+        }
+
+        // each delta gets a fresh virtual thread, so the log context is handed over explicitly
+        return sequencer.submit(companyNumber, () -> CompletableFuture.runAsync(() -> {
+            DataMapHolder.set(logContext);
+            try {
+                router.route(delta);
+            } finally {
+                DataMapHolder.clear();
+            }
+        }, executor));
+    }
+}
@@ -0,0 +1,70 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AimdLimitTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private AimdLimit limit;
+
+    @BeforeEach
+    void setUp() {
+        limit = new AimdLimit(4, 1, 6, 0.5, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldGrowByOneForEachLimitsWorthOfHealthyCalls() {
+        // when
+        for (int i = 0; i < 4; i++) {
+            limit.onSample(FAST, false, 4);
+        }
+
+        // then
+        assertThat(limit.limit()).isEqualTo(4);
+        limit.onSample(FAST, false, 4);
+        assertThat(limit.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void shouldNotGrowWhileLimitIsUnused() {
+        // when
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(FAST, false, 1);
+        }
+
+        // then
+        assertThat(limit.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldNeverGrowBeyondMax() {
+        // when
+        for (int i = 0; i < 100; i++) {
+            limit.onSample(FAST, false, 6);
+        }
+
+        // then
+        assertThat(limit.limit()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldBackOffOnFailureOrSlowCallDownToMin() {
+        // when
+        limit.onSample(FAST, true, 4);
+        int afterFailure = limit.limit();
+        limit.onSample(SLOW, false, 2);
+        int afterSlowCall = limit.limit();
+        limit.onSample(FAST, true, 1);
+
+        // then
+        assertThat(afterFailure).isEqualTo(2);
+        assertThat(afterSlowCall).isEqualTo(1);
+        assertThat(limit.limit()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,117 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.registers.consumer.apiclient.ApiCallGuard.CircuitListener;
+import uk.gov.companieshouse.registers.consumer.apiclient.ApiCallGuard.Permit;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+
+@ExtendWith(MockitoExtension.class)
+class ApiCallGuardTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofMillis(200);
+
+    private ApiCallGuard guard;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private CircuitListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new ApiCallGuard(new AimdLimit(1, 1, 2, 0.5, Duration.ofMinutes(1)),
+                new CircuitBreaker(2, 2, 1.0, OPEN_DURATION), Duration.ofSeconds(5), meterRegistry);
+        guard.addCircuitListener(listener);
+    }
+
+    @Test
+    void shouldWaitForPermitReleasedByAnotherCall() throws Exception {
+        // given
+        Permit first = guard.acquire();
+        CompletableFuture<Permit> second = CompletableFuture.supplyAsync(guard::acquire);
+
+        // when
+        Thread.sleep(50);
+        boolean waited = !second.isDone();
+        first.release(false);
+
+        // then
+        assertThat(waited).isTrue();
+        second.get(5, TimeUnit.SECONDS).release(false);
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRejectOnceMaxWaitHasPassed() {
+        // given
+        guard = new ApiCallGuard(new AimdLimit(1, 1, 1, 0.5, Duration.ofMinutes(1)),
+                new CircuitBreaker(2, 2, 1.0, OPEN_DURATION), Duration.ofMillis(10), meterRegistry);
+        guard.acquire();
+
+        // when
+        // then
+        assertThatThrownBy(guard::acquire).isInstanceOf(RetryableException.class);
+        assertThat(meterRegistry.get("registers.api.rejected").counter().count()).isOne();
+    }
+
+    @Test
+    void shouldNotifyListenersWhenCircuitOpensAndCloses() throws Exception {
+        // given
+        guard.acquire().release(true);
+        guard.acquire().release(true);
+        verify(listener).opened(OPEN_DURATION);
+        assertThat(meterRegistry.get("registers.api.circuit.state").gauge().value()).isEqualTo(2.0);
+
+        // when
+        Permit trial = CompletableFuture.supplyAsync(guard::acquire).get(5, TimeUnit.SECONDS);
+        trial.release(false);
+
+        // then
+        verify(listener).closed();
+        assertThat(meterRegistry.get("registers.api.circuit.opened").counter().count()).isOne();
+        assertThat(meterRegistry.get("registers.api.circuit.state").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldPassEverythingThroughWhenUnguarded() {
+        // given
+        guard = ApiCallGuard.unguarded();
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            guard.acquire().release(true);
+        }
+
+        // then
+        verifyNoInteractions(listener);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "200, false",
+            "400, false",
+            "404, false",
+            "429, true",
+            "500, true",
+            "503, true",
+            ", true"
+    })
+    void shouldTreatNoResponseThrottlingAndServerErrorsAsUnavailable(Integer statusCode, boolean expected) {
+        assertThat(ApiCallGuard.isUnavailable(statusCode)).isEqualTo(expected);
+    }
+}
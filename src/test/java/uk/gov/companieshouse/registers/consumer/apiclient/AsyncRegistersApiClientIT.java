@@ -0,0 +1,81 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.findAll;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.InternalApiClient;
+import uk.gov.companieshouse.api.http.ApiKeyHttpClient;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.serdes.SerdesConfig;
+
+@WireMockTest
+class AsyncRegistersApiClientIT {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String REQUEST_URI = "/company/%s/registers".formatted(COMPANY_NUMBER);
+    private static final String API_KEY = "apikey";
+    private static final String REQUEST_ID = "request_id";
+
+    private final ObjectMapper objectMapper = new SerdesConfig().objectMapper();
+
+    @AfterEach
+    void tearDown() {
+        DataMapHolder.clear();
+    }
+
+    @Test
+    void shouldSendSamePutRequestAsSdkClient(WireMockRuntimeInfo wireMock) throws Exception {
+        // given
+        stubFor(put(urlEqualTo(REQUEST_URI)).willReturn(aResponse().withStatus(200)));
+        InternalRegisters requestBody = objectMapper.readValue(
+                IOUtils.resourceToString("/registers-request-body.json", StandardCharsets.UTF_8),
+                InternalRegisters.class);
+        DataMapHolder.initialise(REQUEST_ID);
+
+        InternalApiClient sdkClient = new InternalApiClient(new ApiKeyHttpClient(API_KEY));
+        sdkClient.setBasePath(wireMock.getHttpBaseUrl());
+        sdkClient.getHttpClient().setRequestId(REQUEST_ID);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AsyncRegistersApiClient asyncClient = new AsyncRegistersApiClient(HttpClient.newHttpClient(),
+                new ResponseHandler(), new DeltaMetrics(meterRegistry), ApiCallGuard.unguarded(), objectMapper,
+                wireMock.getHttpBaseUrl(), API_KEY, 5000L);
+
+        // when
+        sdkClient.privateDeltaResourceHandler()
+                .putRegisters()
+                .upsert(REQUEST_URI, requestBody)
+                .execute();
+        asyncClient.upsertRegisters(COMPANY_NUMBER, requestBody).get();
+
+        // then
+        List<LoggedRequest> requests = findAll(putRequestedFor(urlEqualTo(REQUEST_URI)));
+        assertThat(requests).hasSize(2);
+        LoggedRequest sdk = requests.get(0);
+        LoggedRequest async = requests.get(1);
+        assertThat(objectMapper.readTree(async.getBodyAsString()))
+                .isEqualTo(objectMapper.readTree(sdk.getBodyAsString()));
+        assertThat(async.getHeader("Authorization")).isEqualTo(sdk.getHeader("Authorization"));
+        assertThat(async.getHeader("x-request-id")).isEqualTo(sdk.getHeader("x-request-id")).isEqualTo(REQUEST_ID);
+        assertThat(async.contentTypeHeader().mimeTypePart())
+                .isEqualTo(sdk.contentTypeHeader().mimeTypePart());
+    }
+}
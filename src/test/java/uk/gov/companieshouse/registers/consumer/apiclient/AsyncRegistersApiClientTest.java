@@ -0,0 +1,207 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncRegistersApiClientTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String API_URL = "http://localhost:8888";
+    private static final String REQUEST_ID = "request_id";
+
+    private AsyncRegistersApiClient client;
+    private SimpleMeterRegistry meterRegistry;
+
+    @Mock
+    private HttpClient httpClient;
+    @Mock
+    private HttpResponse<Void> response;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        client = new AsyncRegistersApiClient(httpClient, new ResponseHandler(), new DeltaMetrics(meterRegistry),
+                new ApiCallGuard(new AimdLimit(1, 1, 1, 0.5, Duration.ofMinutes(1)),
+                        new CircuitBreaker(1, 1, 0.5, Duration.ofMinutes(1)), Duration.ZERO, meterRegistry),
+                new ObjectMapper(), API_URL, "apikey", 1000L);
+        DataMapHolder.initialise(REQUEST_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataMapHolder.clear();
+    }
+
+    @Test
+    void shouldSendPutRequest() throws Exception {
+        // given
+        when(response.statusCode()).thenReturn(200);
+        when(httpClient.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        CompletableFuture<Void> actual = client.upsertRegisters(COMPANY_NUMBER, new InternalRegisters());
+
+        // then
+        actual.get();
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(request.capture(), any());
+        assertThat(request.getValue().method()).isEqualTo("PUT");
+        assertThat(request.getValue().uri()).isEqualTo(URI.create(API_URL + "/company/12345678/registers"));
+        assertThat(request.getValue().headers().firstValue("x-request-id")).hasValue(REQUEST_ID);
+        assertThat(request.getValue().headers().firstValue("Authorization")).hasValue("Basic YXBpa2V5Og==");
+        assertThat(request.getValue().headers().firstValue("Content-Type")).hasValue("application/json");
+        assertThat(meterRegistry.get("registers.api.request").tag("operation", "upsert").tag("status", "200")
+                .timer().count()).isOne();
+    }
+
+    @Test
+    void shouldSendDeleteRequest() throws Exception {
+        // given
+        when(response.statusCode()).thenReturn(200);
+        when(httpClient.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        CompletableFuture<Void> actual = client.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        actual.get();
+        ArgumentCaptor<HttpRequest> request = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient).sendAsync(request.capture(), any());
+        assertThat(request.getValue().method()).isEqualTo("DELETE");
+        assertThat(request.getValue().uri()).isEqualTo(URI.create(API_URL + "/company/12345678/registers"));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "401",
+            "404",
+            "500",
+            "503"
+    })
+    void shouldCompleteWithRetryableExceptionForRetryableStatusCodes(final int httpStatusCode) {
+        // given
+        when(response.statusCode()).thenReturn(httpStatusCode);
+        when(httpClient.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        CompletableFuture<Void> actual = client.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        assertThatThrownBy(actual::get)
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(RetryableException.class);
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldReleasePermitAsUnavailableWhenServerErrors() {
+        // given
+        when(response.statusCode()).thenReturn(503);
+        when(httpClient.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        CompletableFuture<Void> actual = client.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        assertThat(actual).isCompletedExceptionally();
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("registers.api.circuit.opened").counter().count()).isOne();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "400",
+            "409"
+    })
+    void shouldCompleteWithNonRetryableExceptionFor400And409(final int httpStatusCode) {
+        // given
+        when(response.statusCode()).thenReturn(httpStatusCode);
+        when(httpClient.<Void>sendAsync(any(), any())).thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        CompletableFuture<Void> actual = client.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        assertThatThrownBy(actual::get)
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(NonRetryableException.class);
+    }
+
+    @Test
+    void shouldCompleteWithRetryableExceptionWhenRequestFails() {
+        // given
+        when(httpClient.<Void>sendAsync(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new ConnectException("refused")));
+
+        // when
+        CompletableFuture<Void> actual = client.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        assertThatThrownBy(actual::get)
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(RetryableException.class);
+    }
+
+    @Test
+    void shouldCompleteExceptionallyAndGiveBackPermitWhenSendThrows() throws Exception {
+        // given
+        IllegalArgumentException failure = new IllegalArgumentException("unsupported request");
+        when(response.statusCode()).thenReturn(200);
+        when(httpClient.<Void>sendAsync(any(), any()))
+                .thenThrow(failure)
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        // when
+        CompletableFuture<Void> actual = client.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        assertThat(actual).isCompletedExceptionally();
+        assertThat(actual.exceptionNow()).isSameAs(failure);
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("registers.api.circuit.opened").counter().count()).isZero();
+        assertThat(meterRegistry.find("registers.api.request").timer()).isNull();
+        client.deleteRegisters(COMPANY_NUMBER).get();
+    }
+
+    @Test
+    void shouldCompleteExceptionallyWithoutSendingWhenRequestCannotBeBuilt() {
+        // when
+        CompletableFuture<Void> actual = client.upsertRegisters("not a company number", new InternalRegisters());
+
+        // then
+        assertThat(actual).isCompletedExceptionally();
+        assertThat(actual.exceptionNow()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+        verifyNoInteractions(httpClient);
+    }
+}
@@ -0,0 +1,148 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.registers.consumer.apiclient.CircuitBreaker.State;
+
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(30);
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new CircuitBreaker(4, 2, 0.5, OPEN_DURATION, () -> now);
+    }
+
+    @Test
+    void shouldStayClosedBelowMinimumCalls() {
+        // when
+        breaker.onResult(false, true);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void shouldOpenAtFailureRateThreshold() {
+        // given
+        breaker.onResult(false, false);
+        breaker.onResult(false, false);
+        breaker.onResult(false, true);
+
+        // when
+        breaker.onResult(false, true);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.nanosUntilHalfOpen()).isEqualTo(OPEN_DURATION.toNanos());
+    }
+
+    @Test
+    void shouldOnlyCountMostRecentCalls() {
+        // given
+        breaker = new CircuitBreaker(4, 2, 0.75, OPEN_DURATION, () -> now);
+        breaker.onResult(false, true);
+        breaker.onResult(false, false);
+        breaker.onResult(false, false);
+        breaker.onResult(false, false);
+        breaker.onResult(false, true);
+        breaker.onResult(false, true);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+
+        // when
+        breaker.onResult(false, true);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void shouldLetSingleTrialThroughOnceOpenDurationHasPassed() {
+        // given
+        open();
+        now += OPEN_DURATION.toNanos();
+
+        // when
+        boolean trial = breaker.tryAcquire();
+        boolean second = breaker.tryAcquire();
+
+        // then
+        assertThat(trial).isTrue();
+        assertThat(second).isFalse();
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void shouldCloseWhenTrialSucceeds() {
+        // given
+        open();
+        now += OPEN_DURATION.toNanos();
+        breaker.tryAcquire();
+
+        // when
+        breaker.onResult(true, false);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+        breaker.onResult(false, true);
+        assertThat(breaker.state()).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    void shouldReopenWhenTrialFails() {
+        // given
+        open();
+        now += OPEN_DURATION.toNanos();
+        breaker.tryAcquire();
+
+        // when
+        breaker.onResult(true, true);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+        assertThat(breaker.nanosUntilHalfOpen()).isEqualTo(OPEN_DURATION.toNanos());
+    }
+
+    @Test
+    void shouldIgnoreResultsOfCallsStartedBeforeOpening() {
+        // given
+        open();
+        now += OPEN_DURATION.toNanos();
+        breaker.tryAcquire();
+
+        // when
+        breaker.onResult(false, false);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void shouldLetAnotherTrialThroughWhenTrialIsAbandoned() {
+        // given
+        open();
+        now += OPEN_DURATION.toNanos();
+        breaker.tryAcquire();
+
+        // when
+        breaker.onAbandoned(true);
+
+        // then
+        assertThat(breaker.state()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    private void open() {
+        breaker.onResult(false, true);
+        breaker.onResult(false, true);
+        assertThat(breaker.state()).isEqualTo(State.OPEN);
+    }
+}
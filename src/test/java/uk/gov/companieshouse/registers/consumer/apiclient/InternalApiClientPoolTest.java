@@ -0,0 +1,146 @@
+package uk.gov.companieshouse.registers.consumer.apiclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.api.InternalApiClient;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+
+@ExtendWith(MockitoExtension.class)
+class InternalApiClientPoolTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private Supplier<InternalApiClient> factory;
+    @Mock
+    private InternalApiClient firstClient;
+    @Mock
+    private InternalApiClient secondClient;
+
+    @Test
+    void shouldReuseReturnedClient() {
+        // given
+        InternalApiClientPool pool = pool(2, Duration.ofMinutes(1));
+        when(factory.get()).thenReturn(firstClient);
+        pool.borrow().close();
+
+        // when
+        InternalApiClientPool.Lease lease = pool.borrow();
+
+        // then
+        assertThat(lease.client()).isSameAs(firstClient);
+        verify(factory, times(1)).get();
+    }
+
+    @Test
+    void shouldNotShareLeasedClient() {
+        // given
+        InternalApiClientPool pool = pool(2, Duration.ofMinutes(1));
+        when(factory.get()).thenReturn(firstClient).thenReturn(secondClient);
+
+        // when
+        InternalApiClientPool.Lease first = pool.borrow();
+        InternalApiClientPool.Lease second = pool.borrow();
+
+        // then
+        assertThat(first.client()).isSameAs(firstClient);
+        assertThat(second.client()).isSameAs(secondClient);
+    }
+
+    @Test
+    void shouldEvictClientIdleLongerThanTimeout() throws Exception {
+        // given
+        InternalApiClientPool pool = pool(2, Duration.ofMillis(1));
+        when(factory.get()).thenReturn(firstClient).thenReturn(secondClient);
+        InternalApiClientPool.Lease first = pool.borrow();
+        InternalApiClientPool.Lease second = pool.borrow();
+        first.close();
+        Thread.sleep(10);
+        second.close();
+
+        // when
+        pool.borrow();
+        InternalApiClientPool.Lease actual = pool.borrow();
+
+        // then
+        assertThat(actual.client()).isNotSameAs(firstClient);
+        verify(factory, times(3)).get();
+    }
+
+    @Test
+    void shouldThrowRetryableExceptionWhenPoolExhausted() {
+        // given
+        InternalApiClientPool pool = new InternalApiClientPool(factory, 1, Duration.ofMinutes(1),
+                Duration.ofMillis(10), meterRegistry);
+        when(factory.get()).thenReturn(firstClient);
+        pool.borrow();
+
+        // when, then
+        assertThrows(RetryableException.class, pool::borrow);
+    }
+
+    @Test
+    void shouldGiveBackSlotWhenClientCannotBeCreated() {
+        // given
+        InternalApiClientPool pool = new InternalApiClientPool(factory, 1, Duration.ofMinutes(1),
+                Duration.ofMillis(10), meterRegistry);
+        IllegalStateException failure = new IllegalStateException("unable to create client");
+        when(factory.get()).thenThrow(failure).thenReturn(firstClient);
+
+        // when
+        IllegalStateException actual = assertThrows(IllegalStateException.class, pool::borrow);
+
+        // then
+        assertThat(actual).isSameAs(failure);
+        assertThat(meterRegistry.get("registers.api.client.pool.active").gauge().value()).isZero();
+        assertThat(pool.borrow().client()).isSameAs(firstClient);
+    }
+
+    @Test
+    void shouldReturnClientOnlyOnceWhenLeaseClosedTwice() {
+        // given
+        InternalApiClientPool pool = pool(2, Duration.ofMinutes(1));
+        when(factory.get()).thenReturn(firstClient);
+        InternalApiClientPool.Lease lease = pool.borrow();
+
+        // when
+        lease.close();
+        lease.close();
+
+        // then
+        assertThat(meterRegistry.get("registers.api.client.pool.idle").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("registers.api.client.pool.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldRecordPoolMetrics() {
+        // given
+        InternalApiClientPool pool = pool(3, Duration.ofMinutes(1));
+        when(factory.get()).thenReturn(firstClient);
+
+        // when
+        pool.borrow();
+
+        // then
+        assertThat(meterRegistry.get("registers.api.client.pool.active").gauge().value()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("registers.api.client.pool.idle").gauge().value()).isZero();
+        assertThat(meterRegistry.get("registers.api.client.pool.max").gauge().value()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("registers.api.client.pool.acquire").timer().count()).isEqualTo(1);
+    }
+
+    private InternalApiClientPool pool(int maxSize, Duration idleTimeout) {
+        return new InternalApiClientPool(factory, maxSize, idleTimeout, Duration.ofSeconds(1), meterRegistry);
+    }
+}
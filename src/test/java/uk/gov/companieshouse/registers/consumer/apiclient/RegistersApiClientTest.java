@@ -1,15 +1,20 @@
 package uk.gov.companieshouse.registers.consumer.apiclient;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
 import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.companieshouse.api.InternalApiClient;
@@ -20,8 +25,11 @@ import uk.gov.companieshouse.api.handler.delta.registers.request.PrivateRegister
 import uk.gov.companieshouse.api.handler.delta.registers.request.PrivateRegistersUpsertResourceHandler;
 import uk.gov.companieshouse.api.handler.exception.URIValidationException;
 import uk.gov.companieshouse.api.http.HttpClient;
+import uk.gov.companieshouse.api.model.ApiResponse;
 import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
 import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
 
 @ExtendWith(MockitoExtension.class)
 class RegistersApiClientTest {
@@ -30,8 +38,9 @@ class RegistersApiClientTest {
     private static final String REQUEST_URI = "/company/%s/registers".formatted(COMPANY_NUMBER);
     private static final String REQUEST_ID = "request_id";
 
-    @InjectMocks
     private RegistersApiClient registersApiClient;
+    private InternalApiClientPool internalApiClientPool;
+    private SimpleMeterRegistry meterRegistry;
 
     @Mock
     private Supplier<InternalApiClient> internalApiClientFactory;
@@ -52,6 +61,18 @@ class RegistersApiClientTest {
     private PrivateRegistersDelete privateRegistersDelete;
     @Mock
     private PrivateRegistersUpsert privateRegistersUpsert;
+    @Mock
+    private ApiErrorResponseException apiErrorResponseException;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        internalApiClientPool = new InternalApiClientPool(internalApiClientFactory, 1, Duration.ofMinutes(1),
+                Duration.ofMillis(50), meterRegistry);
+        registersApiClient = new RegistersApiClient(internalApiClientPool, responseHandler,
+                new DeltaMetrics(meterRegistry), new ApiCallGuard(new AimdLimit(1, 1, 1, 0.5, Duration.ofMinutes(1)),
+                        new CircuitBreaker(1, 1, 0.5, Duration.ofMinutes(1)), Duration.ZERO, meterRegistry));
+    }
 
     @Test
     void shouldSendSuccessfulPutRequest() throws Exception {
@@ -61,6 +82,7 @@ class RegistersApiClientTest {
         when(internalApiClient.privateDeltaResourceHandler()).thenReturn(privateDeltaResourceHandler);
         when(privateDeltaResourceHandler.putRegisters()).thenReturn(privateRegistersUpsertResourceHandler);
         when(privateRegistersUpsertResourceHandler.upsert(any(), any())).thenReturn(privateRegistersUpsert);
+        when(privateRegistersUpsert.execute()).thenReturn(new ApiResponse<>(200, Map.of()));
 
         DataMapHolder.get().requestId(REQUEST_ID);
 
@@ -74,6 +96,9 @@ class RegistersApiClientTest {
         verify(privateRegistersUpsertResourceHandler).upsert(REQUEST_URI, requestBody);
         verify(privateRegistersUpsert).execute();
         verifyNoInteractions(responseHandler);
+        assertThat(apiTimerCount("upsert", "200")).isOne();
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+        assertThat(meterRegistry.get("registers.api.circuit.opened").counter().count()).isZero();
     }
 
     @Test
@@ -86,7 +111,8 @@ class RegistersApiClientTest {
         when(internalApiClient.privateDeltaResourceHandler()).thenReturn(privateDeltaResourceHandler);
         when(privateDeltaResourceHandler.putRegisters()).thenReturn(privateRegistersUpsertResourceHandler);
         when(privateRegistersUpsertResourceHandler.upsert(any(), any())).thenReturn(privateRegistersUpsert);
-        when(privateRegistersUpsert.execute()).thenThrow(exceptionClass);
+        when(apiErrorResponseException.getStatusCode()).thenReturn(503);
+        when(privateRegistersUpsert.execute()).thenThrow(apiErrorResponseException);
 
         DataMapHolder.get().requestId(REQUEST_ID);
 
@@ -100,6 +126,8 @@ class RegistersApiClientTest {
         verify(privateRegistersUpsertResourceHandler).upsert(REQUEST_URI, requestBody);
         verify(privateRegistersUpsert).execute();
         verify(responseHandler).handle(any(exceptionClass));
+        assertThat(apiTimerCount("upsert", "503")).isOne();
+        assertThat(meterRegistry.get("registers.api.circuit.opened").counter().count()).isOne();
     }
 
     @Test
@@ -135,6 +163,7 @@ class RegistersApiClientTest {
         when(internalApiClient.getHttpClient()).thenReturn(apiClient);
         when(internalApiClient.privateDeltaResourceHandler()).thenReturn(privateDeltaResourceHandler);
         when(privateDeltaResourceHandler.deleteRegisters(anyString())).thenReturn(privateRegistersDelete);
+        when(privateRegistersDelete.execute()).thenReturn(new ApiResponse<>(200, Map.of()));
 
         DataMapHolder.get().requestId(REQUEST_ID);
 
@@ -147,6 +176,7 @@ class RegistersApiClientTest {
         verify(privateDeltaResourceHandler).deleteRegisters(REQUEST_URI);
         verify(privateRegistersDelete).execute();
         verifyNoInteractions(responseHandler);
+        assertThat(apiTimerCount("delete", "200")).isOne();
     }
 
     @Test
@@ -195,5 +225,34 @@ class RegistersApiClientTest {
         verify(privateDeltaResourceHandler).deleteRegisters(REQUEST_URI);
         verify(privateRegistersDelete).execute();
         verify(responseHandler).handle(any(exceptionClass));
+        assertThat(apiTimerCount("delete", "none")).isOne();
+    }
+
+    @Test
+    void shouldNotCountTimeoutWaitingForPooledClientAgainstApi() throws Exception {
+        // given
+        when(internalApiClientFactory.get()).thenReturn(internalApiClient);
+        when(internalApiClient.getHttpClient()).thenReturn(apiClient);
+        when(internalApiClient.privateDeltaResourceHandler()).thenReturn(privateDeltaResourceHandler);
+        when(privateDeltaResourceHandler.deleteRegisters(anyString())).thenReturn(privateRegistersDelete);
+        when(privateRegistersDelete.execute()).thenReturn(new ApiResponse<>(200, Map.of()));
+
+        // when
+        try (InternalApiClientPool.Lease held = internalApiClientPool.borrow()) {
+            assertThatThrownBy(() -> registersApiClient.deleteRegisters(COMPANY_NUMBER))
+                    .isInstanceOf(RetryableException.class);
+        }
+        registersApiClient.deleteRegisters(COMPANY_NUMBER);
+
+        // then
+        assertThat(meterRegistry.find("registers.api.request").tag("status", "none").timer()).isNull();
+        assertThat(apiTimerCount("delete", "200")).isOne();
+        assertThat(meterRegistry.get("registers.api.circuit.opened").counter().count()).isZero();
+        assertThat(meterRegistry.get("registers.api.in.flight").gauge().value()).isZero();
+    }
+
+    private long apiTimerCount(String operation, String status) {
+        return meterRegistry.get("registers.api.request").tag("operation", operation).tag("status", status)
+                .timer().count();
     }
 }
@@ -3,6 +3,8 @@ package uk.gov.companieshouse.registers.consumer.apiclient;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
+import java.io.IOException;
+import java.net.http.HttpResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
@@ -24,6 +26,8 @@ class ResponseHandlerTest {
     private ApiErrorResponseException apiErrorResponseException;
     @Mock
     private URIValidationException uriValidationException;
+    @Mock
+    private HttpResponse<Void> httpResponse;
 
     @ParameterizedTest
     @CsvSource({
@@ -74,4 +78,49 @@ class ResponseHandlerTest {
         // then
         assertThrows(NonRetryableException.class, executable);
     }
+
+    @ParameterizedTest
+    @CsvSource({
+            "401",
+            "404",
+            "500",
+            "503"
+    })
+    void shouldHandleHttpResponseByThrowingRetryableExceptionForSpecificStatusCodes(final int httpStatusCode) {
+        // given
+        when(httpResponse.statusCode()).thenReturn(httpStatusCode);
+
+        // when
+        Executable executable = () -> responseHandler.handle(httpResponse);
+
+        // then
+        assertThrows(RetryableException.class, executable);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "400",
+            "409"
+    })
+    void shouldHandleHttpResponseByThrowingNonRetryableExceptionFor400And409(final int httpStatusCode) {
+        // given
+        when(httpResponse.statusCode()).thenReturn(httpStatusCode);
+
+        // when
+        Executable executable = () -> responseHandler.handle(httpResponse);
+
+        // then
+        assertThrows(NonRetryableException.class, executable);
+    }
+
+    @Test
+    void shouldHandleIOExceptionByThrowingRetryableException() {
+        // given
+
+        // when
+        Executable executable = () -> responseHandler.handle(new IOException("timeout"));
+
+        // then
+        assertThrows(RetryableException.class, executable);
+    }
 }
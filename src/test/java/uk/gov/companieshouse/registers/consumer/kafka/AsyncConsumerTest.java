@@ -0,0 +1,98 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.service.AsyncDeltaServiceRouter;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncConsumerTest {
+
+    private static final String TOPIC = "topic";
+
+    private AsyncConsumer consumer;
+
+    @Mock
+    private AsyncDeltaServiceRouter router;
+    @Mock
+    private Message<ChsDelta> message;
+    @Mock
+    private ChsDelta delta;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new AsyncConsumer(router, new InFlightRecords(1));
+        when(message.getPayload()).thenReturn(delta);
+    }
+
+    @Test
+    void shouldReturnRouterResult() {
+        // given
+        CompletableFuture<Void> expected = CompletableFuture.completedFuture(null);
+        when(router.route(delta)).thenReturn(expected);
+
+        // when
+        CompletableFuture<Void> actual = consumer.consume(message, 1, TOPIC, 0, 0L);
+
+        // then
+        assertThat(actual).isSameAs(expected);
+    }
+
+    @Test
+    void shouldWaitForInFlightRequestOnSamePartitionWhenAtLimit() throws Exception {
+        // given
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        CompletableFuture<Void> second = CompletableFuture.completedFuture(null);
+        when(router.route(delta)).thenReturn(first).thenReturn(second);
+        consumer.consume(message, 1, TOPIC, 0, 0L);
+
+        // when
+        CompletableFuture<CompletableFuture<Void>> blocked =
+                CompletableFuture.supplyAsync(() -> consumer.consume(message, 1, TOPIC, 0, 1L));
+
+        // then
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertThat(blocked).isNotDone();
+        first.complete(null);
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isSameAs(second);
+    }
+
+    @Test
+    void shouldNotWaitForInFlightRequestOnOtherPartition() {
+        // given
+        CompletableFuture<Void> second = CompletableFuture.completedFuture(null);
+        when(router.route(delta)).thenReturn(new CompletableFuture<>()).thenReturn(second);
+        consumer.consume(message, 1, TOPIC, 0, 0L);
+
+        // when
+        CompletableFuture<Void> actual = consumer.consume(message, 1, TOPIC, 1, 0L);
+
+        // then
+        assertThat(actual).isSameAs(second);
+    }
+
+    @Test
+    void shouldReleasePermitWhenRouterThrows() {
+        // given
+        CompletableFuture<Void> expected = CompletableFuture.completedFuture(null);
+        when(router.route(delta)).thenThrow(NonRetryableException.class).thenReturn(expected);
+        assertThrows(NonRetryableException.class, () -> consumer.consume(message, 1, TOPIC, 0, 0L));
+
+        // when
+        CompletableFuture<Void> actual = consumer.consume(message, 1, TOPIC, 0, 1L);
+
+        // then
+        assertThat(actual).isSameAs(expected);
+    }
+}
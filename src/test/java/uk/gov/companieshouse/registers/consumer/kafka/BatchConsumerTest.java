@@ -0,0 +1,177 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.service.DeltaServiceRouter;
+
+@ExtendWith(MockitoExtension.class)
+class BatchConsumerTest {
+
+    private static final String TOPIC = "registers-delta";
+
+    @Mock
+    private DeltaServiceRouter router;
+    @Mock
+    private DeltaCoalescer coalescer;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+
+    private final ChsDelta first = new ChsDelta("first", 0, "context_id", false);
+    private final ChsDelta second = new ChsDelta("second", 0, "context_id", true);
+    private final ChsDelta third = new ChsDelta("third", 0, "context_id", false);
+
+    private BatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new BatchConsumer(router, coalescer, deltaMetrics, 1);
+    }
+
+    @Test
+    void shouldRouteCoalescedDeltas() {
+        // given
+        List<ConsumerRecord<String, ChsDelta>> records = List.of(record(0, first), record(1, second));
+        when(coalescer.coalesce(any())).thenReturn(List.of(records.get(1)));
+
+        // when
+        consumer.consume(records);
+
+        // then
+        verify(coalescer).coalesce(records);
+        verify(router).route(second);
+        verify(router, never()).route(first);
+        verify(deltaMetrics).recordSuccess();
+    }
+
+    @Test
+    void shouldIdentifyFailedRecordWithRetryableCause() {
+        // given
+        List<ConsumerRecord<String, ChsDelta>> records = List.of(record(0, first), record(1, second));
+        when(coalescer.coalesce(any())).thenReturn(records);
+        doNothing().when(router).route(first);
+        doThrow(new RetryableException("retryable", new Throwable())).when(router).route(second);
+
+        // when
+        Executable actual = () -> consumer.consume(records);
+
+        // then
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, actual);
+        assertThat(exception.getRecord()).isSameAs(records.get(1));
+        assertThat(exception.getCause()).isInstanceOf(RetryableException.class);
+        verify(router).route(first);
+        verify(deltaMetrics).recordSuccess();
+        verify(deltaMetrics).recordFailure(exception.getCause());
+    }
+
+    @Test
+    void shouldIdentifyFailedRecordWithNonRetryableCause() {
+        // given
+        List<ConsumerRecord<String, ChsDelta>> records = List.of(record(0, first));
+        when(coalescer.coalesce(any())).thenReturn(records);
+        doThrow(NonRetryableException.class).when(router).route(first);
+
+        // when
+        Executable actual = () -> consumer.consume(records);
+
+        // then
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, actual);
+        assertThat(exception.getRecord()).isSameAs(records.getFirst());
+        assertThat(exception.getCause()).isInstanceOf(NonRetryableException.class);
+    }
+
+    @Test
+    void shouldFailRecordsThatCouldNotBeDeserialised() {
+        // given
+        List<ConsumerRecord<String, ChsDelta>> records = List.of(new ConsumerRecord<>(TOPIC, 0, 0L, "key", null));
+        when(coalescer.coalesce(any())).thenReturn(records);
+
+        // when
+        Executable actual = () -> consumer.consume(records);
+
+        // then
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, actual);
+        assertThat(exception.getCause()).isInstanceOf(NonRetryableException.class);
+        verifyNoInteractions(router);
+    }
+
+    @Test
+    void shouldRouteDeltasInParallel() throws Exception {
+        // given
+        List<ConsumerRecord<String, ChsDelta>> records = List.of(record(0, first), record(1, second));
+        when(coalescer.coalesce(any())).thenReturn(records);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            bothStarted.countDown();
+            // each delta waits for the other, so this only completes if they run side by side
+            assertThat(bothStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            return null;
+        }).when(router).route(any());
+
+        // when
+        try (BatchConsumer parallel = new BatchConsumer(router, coalescer, deltaMetrics, 2)) {
+            parallel.consume(records);
+        }
+
+        // then
+        verify(router).route(first);
+        verify(router).route(second);
+        verify(deltaMetrics, times(2)).recordSuccess();
+    }
+
+    @Test
+    void shouldIdentifyEarliestFailedRecordOnceAllParallelDeltasHaveCompleted() {
+        // given
+        List<ConsumerRecord<String, ChsDelta>> records =
+                List.of(record(0, first), record(1, second), record(2, third));
+        when(coalescer.coalesce(any())).thenReturn(records);
+        doThrow(new RetryableException("retryable", new Throwable())).when(router).route(first);
+        doAnswer(invocation -> {
+            Thread.sleep(50);
+            throw new NonRetryableException("non retryable");
+        }).when(router).route(second);
+
+        // when
+        Executable actual = () -> {
+            try (BatchConsumer parallel = new BatchConsumer(router, coalescer, deltaMetrics, 3)) {
+                parallel.consume(records);
+            }
+        };
+
+        // then
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class, actual);
+        assertThat(exception.getRecord()).isSameAs(records.getFirst());
+        assertThat(exception.getCause()).isInstanceOf(RetryableException.class);
+        verify(router).route(third);
+        verify(deltaMetrics).recordSuccess();
+        verify(deltaMetrics, times(2)).recordFailure(any());
+    }
+
+    private static ConsumerRecord<String, ChsDelta> record(long offset, ChsDelta delta) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, "key", delta);
+    }
+}
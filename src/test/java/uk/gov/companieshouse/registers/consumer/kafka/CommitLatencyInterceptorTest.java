@@ -0,0 +1,130 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+@ExtendWith(MockitoExtension.class)
+class CommitLatencyInterceptorTest {
+
+    private static final String TOPIC = "registers-delta";
+    private static final TopicPartition PARTITION = new TopicPartition(TOPIC, 0);
+
+    private CommitLatencyInterceptor interceptor;
+
+    @Mock
+    private DeltaMetrics deltaMetrics;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new CommitLatencyInterceptor();
+        interceptor.configure(Map.of("delta-metrics", deltaMetrics));
+    }
+
+    @AfterEach
+    void tearDown() {
+        interceptor.close();
+    }
+
+    @Test
+    void shouldRecordLatencyOfRecordsBeforeCommittedOffsetOnce() {
+        // given
+        ConsumerRecords<String, ChsDelta> records = new ConsumerRecords<>(Map.of(PARTITION,
+                List.of(consumerRecord(0, 1000L), consumerRecord(1, 2000L), consumerRecord(2, 3000L))));
+
+        // when
+        ConsumerRecords<String, ChsDelta> actual = interceptor.onConsume(records);
+        interceptor.onCommit(Map.of(PARTITION, new OffsetAndMetadata(2)));
+        interceptor.onCommit(Map.of(PARTITION, new OffsetAndMetadata(2)));
+
+        // then
+        assertThat(actual).isSameAs(records);
+        verify(deltaMetrics).recordCommitLatency(eq(TOPIC), eq(1000L), anyLong());
+        verify(deltaMetrics).recordCommitLatency(eq(TOPIC), eq(2000L), anyLong());
+        verify(deltaMetrics, never()).recordCommitLatency(eq(TOPIC), eq(3000L), anyLong());
+    }
+
+    @Test
+    void shouldIgnoreCommitsForPartitionsWithoutConsumedRecords() {
+        // given
+        TopicPartition other = new TopicPartition(TOPIC, 1);
+
+        // when
+        interceptor.onCommit(Map.of(other, new OffsetAndMetadata(5)));
+
+        // then
+        verifyNoInteractions(deltaMetrics);
+    }
+
+    @Test
+    void shouldForgetUncommittedRecordsOnClose() {
+        // given
+        interceptor.onConsume(new ConsumerRecords<>(Map.of(PARTITION, List.of(consumerRecord(0, 1000L)))));
+
+        // when
+        interceptor.close();
+        interceptor.onCommit(Map.of(PARTITION, new OffsetAndMetadata(1)));
+
+        // then
+        verify(deltaMetrics, never()).recordCommitLatency(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldForgetUncommittedRecordsOfRevokedPartitionsOnly() {
+        // given
+        TopicPartition kept = new TopicPartition(TOPIC, 1);
+        interceptor.onConsume(new ConsumerRecords<>(Map.of(
+                PARTITION, List.of(consumerRecord(0, 1000L)),
+                kept, List.of(consumerRecord(1, 0, 2000L)))));
+
+        // when
+        CommitLatencyInterceptor.forgetPartitions(List.of(PARTITION));
+        interceptor.onCommit(Map.of(PARTITION, new OffsetAndMetadata(1), kept, new OffsetAndMetadata(1)));
+
+        // then
+        verify(deltaMetrics, never()).recordCommitLatency(eq(TOPIC), eq(1000L), anyLong());
+        verify(deltaMetrics).recordCommitLatency(eq(TOPIC), eq(2000L), anyLong());
+    }
+
+    @Test
+    void shouldIgnoreForgetOnThreadWithoutInterceptor() {
+        // given
+        interceptor.onConsume(new ConsumerRecords<>(Map.of(PARTITION, List.of(consumerRecord(0, 1000L)))));
+        interceptor.close();
+
+        // when, then
+        assertThatNoException().isThrownBy(() -> CommitLatencyInterceptor.forgetPartitions(List.of(PARTITION)));
+    }
+
+    private static ConsumerRecord<String, ChsDelta> consumerRecord(long offset, long timestamp) {
+        return consumerRecord(0, offset, timestamp);
+    }
+
+    private static ConsumerRecord<String, ChsDelta> consumerRecord(int partition, long offset, long timestamp) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, timestamp, TimestampType.CREATE_TIME, 0, 0, "key",
+                new ChsDelta("data", 0, "context_id", false), new RecordHeaders(), Optional.empty());
+    }
+}
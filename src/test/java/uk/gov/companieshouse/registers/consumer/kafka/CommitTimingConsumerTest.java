@@ -0,0 +1,80 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RebalanceInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+@ExtendWith(MockitoExtension.class)
+class CommitTimingConsumerTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("registers-delta", 0);
+    private static final Map<TopicPartition, OffsetAndMetadata> OFFSETS = Map.of(PARTITION, new OffsetAndMetadata(5L));
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    @Mock
+    private Consumer<String, ChsDelta> delegate;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+
+    private Consumer<String, ChsDelta> consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = CommitTimingConsumer.wrap(delegate, deltaMetrics, "batched");
+    }
+
+    @Test
+    void shouldTimeSuccessfulCommits() {
+        // when
+        consumer.commitSync(OFFSETS, TIMEOUT);
+
+        // then
+        verify(delegate).commitSync(OFFSETS, TIMEOUT);
+        verify(deltaMetrics).recordCommit(eq("batched"), eq(false), anyLong());
+    }
+
+    @Test
+    void shouldTimeFailedCommitsAndRethrowTheirException() {
+        // given
+        doThrow(new RebalanceInProgressException()).when(delegate).commitSync(OFFSETS, TIMEOUT);
+
+        // when
+        assertThrows(RebalanceInProgressException.class, () -> consumer.commitSync(OFFSETS, TIMEOUT));
+
+        // then
+        verify(deltaMetrics).recordCommit(eq("batched"), eq(true), anyLong());
+    }
+
+    @Test
+    void shouldPassOtherCallsStraightThrough() {
+        // given
+        when(delegate.assignment()).thenReturn(Set.of(PARTITION));
+
+        // when
+        Set<TopicPartition> actual = consumer.assignment();
+
+        // then
+        assertThat(actual).containsExactly(PARTITION);
+        verifyNoInteractions(deltaMetrics);
+    }
+}
@@ -0,0 +1,103 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.Encoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.reflect.ReflectDatumWriter;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.service.DeltaServiceRouter;
+
+@SpringBootTest
+class ConsumerExponentialBackOffIT extends AbstractKafkaIT {
+
+    private static final String FIRST_RETRY_TOPIC = KafkaUtils.RETRY_TOPIC + "-100";
+    private static final String MAX_DELAY_RETRY_TOPIC = KafkaUtils.RETRY_TOPIC + "-200";
+
+    @Autowired
+    private KafkaConsumer<String, byte[]> testConsumer;
+
+    @Autowired
+    private KafkaProducer<String, byte[]> testProducer;
+
+    @Autowired
+    private TestConsumerAspect testConsumerAspect;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private DeltaServiceRouter deltaServiceRouter;
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry registry) {
+        registry.add("steps", () -> 4);
+        registry.add("consumer.max-attempts", () -> 4);
+        registry.add("consumer.backoff-policy", () -> "exponential");
+        registry.add("consumer.backoff-delay", () -> 100);
+        registry.add("consumer.backoff-multiplier", () -> 2.0);
+        registry.add("consumer.backoff-max-delay", () -> 200);
+    }
+
+    @BeforeEach
+    public void setup() {
+        testConsumer.subscribe(List.of(KafkaUtils.MAIN_TOPIC, FIRST_RETRY_TOPIC, MAX_DELAY_RETRY_TOPIC,
+                KafkaUtils.ERROR_TOPIC, KafkaUtils.INVALID_TOPIC));
+        testConsumer.poll(Duration.ofMillis(1000));
+    }
+
+    @Test
+    void testRepublishToRegistersDeltaErrorTopicThroughRetryTopicPerDelay() throws Exception {
+        // given
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Encoder encoder = EncoderFactory.get().directBinaryEncoder(outputStream, null);
+        DatumWriter<ChsDelta> writer = new ReflectDatumWriter<>(ChsDelta.class);
+        writer.write(new ChsDelta("", 0, "context_id", false), encoder);
+
+        doThrow(new RetryableException("Retryable exception", new Throwable())).when(deltaServiceRouter).route(any());
+
+        // when
+        testProducer.send(new ProducerRecord<>(KafkaUtils.MAIN_TOPIC, 0, System.currentTimeMillis(),
+                "key", outputStream.toByteArray()));
+        if (!testConsumerAspect.getLatch().await(10L, TimeUnit.SECONDS)) {
+            fail("Timed out waiting for latch");
+        }
+
+        // then
+        ConsumerRecords<?, ?> consumerRecords = KafkaTestUtils.getRecords(testConsumer, Duration.ofMillis(10000L), 5);
+        assertThat(KafkaUtils.noOfRecordsForTopic(consumerRecords, KafkaUtils.MAIN_TOPIC)).isOne();
+        assertThat(KafkaUtils.noOfRecordsForTopic(consumerRecords, FIRST_RETRY_TOPIC)).isOne();
+        assertThat(KafkaUtils.noOfRecordsForTopic(consumerRecords, MAX_DELAY_RETRY_TOPIC)).isEqualTo(2);
+        assertThat(KafkaUtils.noOfRecordsForTopic(consumerRecords, KafkaUtils.ERROR_TOPIC)).isOne();
+        assertThat(KafkaUtils.noOfRecordsForTopic(consumerRecords, KafkaUtils.INVALID_TOPIC)).isZero();
+        verify(deltaServiceRouter, times(4)).route(any());
+        assertThat(meterRegistry.get("registers.delta.retry.wait").tag("topic", FIRST_RETRY_TOPIC)
+                .timer().count()).isOne();
+        assertThat(meterRegistry.get("registers.delta.retry.wait").tag("topic", MAX_DELAY_RETRY_TOPIC)
+                .timer().count()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,32 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class ConsumerModeTest {
+
+    @Test
+    void shouldParseEachMode() {
+        // when
+        ConsumerMode record = ConsumerMode.of("record");
+        ConsumerMode batch = ConsumerMode.of("batch");
+        ConsumerMode async = ConsumerMode.of("async");
+        ConsumerMode virtual = ConsumerMode.of("virtual");
+
+        // then
+        assertThat(record).isEqualTo(ConsumerMode.RECORD);
+        assertThat(batch).isEqualTo(ConsumerMode.BATCH);
+        assertThat(async).isEqualTo(ConsumerMode.ASYNC);
+        assertThat(virtual).isEqualTo(ConsumerMode.VIRTUAL);
+    }
+
+    @Test
+    void shouldRejectUnknownModeSoNoListenerIsLeftUnregistered() {
+        // when, then
+        assertThatThrownBy(() -> ConsumerMode.of("batch,async"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown consumer mode: batch,async");
+    }
+}
@@ -0,0 +1,81 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.delta.ChsDelta;
+
+class DeltaCoalescerTest {
+
+    private static final String TOPIC = "registers-delta";
+    private static final String DELTA = """
+            {"company_number": "%s", "directors": {"items": []}, "delta_at": "%s"}""";
+    private static final String DELETE_DELTA = """
+            {"company_number": "%s", "action": "DELETE", "delta_at": "%s"}""";
+
+    private final DeltaCoalescer coalescer = new DeltaCoalescer(new ObjectMapper());
+
+    @Test
+    void shouldKeepNewestDeltaPerCompanyInOffsetOrder() {
+        // given
+        ConsumerRecord<String, ChsDelta> oldest = record(0, DELTA.formatted("12345678", "20231030111806428778"));
+        ConsumerRecord<String, ChsDelta> other = record(1, DELTA.formatted("87654321", "20231030111806428778"));
+        ConsumerRecord<String, ChsDelta> newest = record(2, DELTA.formatted("12345678", "20241030111806428778"));
+        ConsumerRecord<String, ChsDelta> older = record(3, DELTA.formatted("12345678", "20231130111806428778"));
+
+        // when
+        List<ConsumerRecord<String, ChsDelta>> actual = coalescer.coalesce(List.of(oldest, other, newest, older));
+
+        // then
+        assertThat(actual).containsExactly(other, newest);
+    }
+
+    @Test
+    void shouldKeepLatestOffsetWhenDeltaAtIsEqual() {
+        // given
+        ConsumerRecord<String, ChsDelta> first = record(0, DELTA.formatted("12345678", "20231030111806428778"));
+        ConsumerRecord<String, ChsDelta> second = record(1, DELETE_DELTA.formatted("12345678", "20231030111806428778"));
+
+        // when
+        List<ConsumerRecord<String, ChsDelta>> actual = coalescer.coalesce(List.of(first, second));
+
+        // then
+        assertThat(actual).containsExactly(second);
+    }
+
+    @Test
+    void shouldCoalesceUpsertAndDeleteDeltasForSameCompany() {
+        // given
+        ConsumerRecord<String, ChsDelta> delete = record(0, DELETE_DELTA.formatted("12345678", "20241030111806428778"));
+        ConsumerRecord<String, ChsDelta> upsert = record(1, DELTA.formatted("12345678", "20231030111806428778"));
+
+        // when
+        List<ConsumerRecord<String, ChsDelta>> actual = coalescer.coalesce(List.of(delete, upsert));
+
+        // then
+        assertThat(actual).containsExactly(delete);
+    }
+
+    @Test
+    void shouldKeepRecordsThatCannotBeKeyed() {
+        // given
+        ConsumerRecord<String, ChsDelta> invalidJson = record(0, "not json");
+        ConsumerRecord<String, ChsDelta> missingDeltaAt = record(1, "{\"company_number\": \"12345678\"}");
+        ConsumerRecord<String, ChsDelta> nullValue = new ConsumerRecord<>(TOPIC, 0, 2, "key", null);
+        ConsumerRecord<String, ChsDelta> valid = record(3, DELTA.formatted("12345678", "20231030111806428778"));
+
+        // when
+        List<ConsumerRecord<String, ChsDelta>> actual = coalescer.coalesce(
+                List.of(invalidJson, missingDeltaAt, nullValue, valid));
+
+        // then
+        assertThat(actual).containsExactly(invalidJson, missingDeltaAt, nullValue, valid);
+    }
+
+    private static ConsumerRecord<String, ChsDelta> record(long offset, String data) {
+        return new ConsumerRecord<>(TOPIC, 0, offset, "key", new ChsDelta(data, 0, "context_id", false));
+    }
+}
@@ -0,0 +1,108 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache;
+
+@ExtendWith(MockitoExtension.class)
+class DrainingRebalanceListenerTest {
+
+    private static final List<TopicPartition> PARTITIONS = List.of(new TopicPartition("registers-delta", 0));
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(20);
+
+    @Mock
+    private InFlightRecords inFlightRecords;
+    @Mock
+    private ContentFingerprintCache fingerprintCache;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+    @Mock
+    private Consumer<?, ?> consumer;
+
+    private DrainingRebalanceListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new DrainingRebalanceListener(inFlightRecords, fingerprintCache, deltaMetrics, DRAIN_TIMEOUT);
+    }
+
+    @Test
+    void shouldWaitForRecordsInFlightBeforeRevokedPartitionsAreCommitted() {
+        // given
+        when(inFlightRecords.awaitCompletion(PARTITIONS, DRAIN_TIMEOUT)).thenReturn(false);
+
+        // when
+        listener.onPartitionsRevokedBeforeCommit(consumer, PARTITIONS);
+
+        // then
+        verify(inFlightRecords).awaitCompletion(PARTITIONS, DRAIN_TIMEOUT);
+        verifyNoInteractions(fingerprintCache);
+    }
+
+    @Test
+    void shouldClearFingerprintsAndCountRevocationsOnceCommitted() {
+        // when
+        listener.onPartitionsRevokedAfterCommit(consumer, PARTITIONS);
+
+        // then
+        verify(fingerprintCache).clear(PARTITIONS);
+        verify(deltaMetrics).recordRebalance("revoked");
+    }
+
+    @Test
+    void shouldNotWaitForRecordsOnLostPartitions() {
+        // when
+        listener.onPartitionsLost(consumer, PARTITIONS);
+
+        // then
+        verify(fingerprintCache).clear(PARTITIONS);
+        verify(deltaMetrics).recordRebalance("lost");
+        verifyNoInteractions(inFlightRecords);
+    }
+
+    @Test
+    void shouldStopTrackingCommitLatencyOfLostPartitions() {
+        // given
+        CommitLatencyInterceptor interceptor = new CommitLatencyInterceptor();
+        interceptor.configure(Map.of("delta-metrics", deltaMetrics));
+        interceptor.onConsume(new ConsumerRecords<>(Map.of(PARTITIONS.getFirst(), List.of(
+                new ConsumerRecord<>("registers-delta", 0, 0L, "key", new ChsDelta("data", 0, "context_id", false))))));
+
+        // when
+        listener.onPartitionsLost(consumer, PARTITIONS);
+        interceptor.onCommit(Map.of(PARTITIONS.getFirst(), new OffsetAndMetadata(1)));
+        interceptor.close();
+
+        // then
+        verify(deltaMetrics, never()).recordCommitLatency(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    void shouldCountAssignments() {
+        // when
+        listener.onPartitionsAssigned(consumer, PARTITIONS);
+
+        // then
+        verify(deltaMetrics).recordRebalance("assigned");
+    }
+}
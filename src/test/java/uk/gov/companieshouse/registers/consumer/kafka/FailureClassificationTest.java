@@ -0,0 +1,119 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.gov.companieshouse.registers.consumer.kafka.FailureClassification.CLASSIFICATION_HEADER;
+import static uk.gov.companieshouse.registers.consumer.kafka.FailureClassification.RETRYABLE_HEADER;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletionException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer.SingleRecordHeader;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.kafka.FailureClassification.Classification;
+
+class FailureClassificationTest {
+
+    private final ConsumerRecord<String, Object> consumerRecord = new ConsumerRecord<>("topic", 0, 0L, "key", "value");
+
+    @Test
+    void shouldClassifyWrappedRetryableExceptionWithItsOwnCauseAsRetryable() {
+        // given
+        Exception exception = new ListenerExecutionFailedException("failed",
+                new RetryableException("retryable", new IllegalStateException("cause")));
+
+        // when
+        Headers actual = FailureClassification.headers(consumerRecord, exception);
+
+        // then
+        assertThat(actual.lastHeader(RETRYABLE_HEADER)).isInstanceOf(SingleRecordHeader.class);
+        assertThat(FailureClassification.isRetryable(actual)).isTrue();
+    }
+
+    @Test
+    void shouldClassifyBatchAndAsyncFailuresByTheirCause() {
+        // given
+        Exception batch = new BatchListenerFailedException("failed",
+                new RetryableException("retryable", null), consumerRecord);
+        Exception async = new CompletionException(new NonRetryableException("non-retryable"));
+
+        // when
+        boolean batchRetryable = FailureClassification.isRetryable(batch);
+        boolean asyncRetryable = FailureClassification.isRetryable(async);
+
+        // then
+        assertThat(batchRetryable).isTrue();
+        assertThat(asyncRetryable).isFalse();
+    }
+
+    @Test
+    void shouldClassifyNonRetryableAndUnknownFailuresAsNonRetryable() {
+        // given
+        Exception invalidPayload = new ListenerExecutionFailedException("failed",
+                new InvalidPayloadException("invalid", new RetryableException("retryable", null)));
+        Exception unknown = new ListenerExecutionFailedException("failed", new NullPointerException());
+
+        // when
+        Headers invalidPayloadHeaders = FailureClassification.headers(consumerRecord, invalidPayload);
+        Headers unknownHeaders = FailureClassification.headers(consumerRecord, unknown);
+
+        // then
+        assertThat(FailureClassification.isRetryable(invalidPayloadHeaders)).isFalse();
+        assertThat(FailureClassification.isRetryable(unknownHeaders)).isFalse();
+        assertThat(invalidPayloadHeaders.lastHeader(CLASSIFICATION_HEADER).value())
+                .isEqualTo("invalid_payload".getBytes(StandardCharsets.UTF_8));
+        assertThat(unknownHeaders.lastHeader(CLASSIFICATION_HEADER).value())
+                .isEqualTo("unclassified".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void shouldClassifyByFirstClassifiedExceptionInChain() {
+        // given
+        Exception nonRetryable = new ListenerExecutionFailedException("failed",
+                new NonRetryableException("non-retryable", new RetryableException("retryable", null)));
+
+        // when
+        Classification actual = FailureClassification.classify(nonRetryable);
+
+        // then
+        assertThat(actual).isEqualTo(Classification.NON_RETRYABLE);
+        assertThat(actual.tag()).isEqualTo("non_retryable");
+    }
+
+    @Test
+    void shouldFindRetryableRootCauseAndStopOnCauseCycles() {
+        // given
+        Exception nested = new ListenerExecutionFailedException("failed", new CompletionException(
+                new IllegalStateException(new RuntimeException(new RetryableException("retryable", null)))));
+        IllegalStateException first = new IllegalStateException("first");
+        IllegalArgumentException second = new IllegalArgumentException("second");
+        first.initCause(second);
+        second.initCause(first);
+
+        // when
+        Classification nestedActual = FailureClassification.classify(nested);
+        Classification cycleActual = FailureClassification.classify(first);
+
+        // then
+        assertThat(nestedActual).isEqualTo(Classification.RETRYABLE);
+        assertThat(cycleActual).isEqualTo(Classification.UNCLASSIFIED);
+    }
+
+    @Test
+    void shouldTreatRecordsWithoutHeaderAsNonRetryable() {
+        // given
+        Headers headers = new RecordHeaders();
+
+        // when
+        boolean actual = FailureClassification.isRetryable(headers);
+
+        // then
+        assertThat(actual).isFalse();
+    }
+}
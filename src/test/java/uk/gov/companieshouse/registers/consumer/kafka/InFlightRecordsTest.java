@@ -0,0 +1,60 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class InFlightRecordsTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("registers-delta", 0);
+    private static final TopicPartition OTHER_PARTITION = new TopicPartition("registers-delta", 1);
+
+    private final InFlightRecords inFlightRecords = new InFlightRecords(2);
+
+    @Test
+    void shouldCompleteStraightAwayWhenNothingIsInFlight() {
+        // given
+        inFlightRecords.acquire(PARTITION);
+        inFlightRecords.release(PARTITION);
+
+        // when
+        boolean actual = inFlightRecords.awaitCompletion(List.of(PARTITION, OTHER_PARTITION), Duration.ZERO);
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(inFlightRecords.partitions()).containsExactly(PARTITION);
+    }
+
+    @Test
+    void shouldWaitForRecordsInFlight() throws Exception {
+        // given
+        inFlightRecords.acquire(PARTITION);
+        inFlightRecords.acquire(PARTITION);
+
+        // when
+        CompletableFuture<Boolean> actual = CompletableFuture.supplyAsync(
+                () -> inFlightRecords.awaitCompletion(List.of(PARTITION), Duration.ofSeconds(5)));
+        inFlightRecords.release(PARTITION);
+        inFlightRecords.release(PARTITION);
+
+        // then
+        assertThat(actual.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldGiveUpOnceTimeoutHasPassed() {
+        // given
+        inFlightRecords.acquire(OTHER_PARTITION);
+
+        // when
+        boolean actual = inFlightRecords.awaitCompletion(List.of(OTHER_PARTITION), Duration.ofMillis(20));
+
+        // then
+        assertThat(actual).isFalse();
+    }
+}
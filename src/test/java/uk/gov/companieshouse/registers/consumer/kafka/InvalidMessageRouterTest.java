@@ -1,69 +1,176 @@
 package uk.gov.companieshouse.registers.consumer.kafka;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.times;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
-import static org.springframework.kafka.support.KafkaHeaders.EXCEPTION_MESSAGE;
-import static org.springframework.kafka.support.KafkaHeaders.ORIGINAL_OFFSET;
-import static org.springframework.kafka.support.KafkaHeaders.ORIGINAL_PARTITION;
 
-import java.math.BigInteger;
-import java.util.List;
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.TimeoutException;
 import org.apache.kafka.common.header.internals.RecordHeader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import uk.gov.companieshouse.delta.ChsDelta;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.KafkaHeaders;
+import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
 
 @ExtendWith(MockitoExtension.class)
 class InvalidMessageRouterTest {
 
+    private static final TopicPartition ERROR_TOPIC = new TopicPartition("main-error", -1);
+    private static final TopicPartition RETRY_TOPIC = new TopicPartition("main-retry", -1);
+
+    private final ConsumerRecord<String, Object> consumerRecord = new ConsumerRecord<>("main", 0, 1L, "key",
+            "an invalid message");
+
     private InvalidMessageRouter invalidMessageRouter;
 
     @Mock
-    private MessageFlags flags;
-
+    private KafkaOperations<String, Object> errorTemplate;
     @Mock
-    private ChsDelta delta;
+    private KafkaOperations<String, Object> invalidTemplate;
+    @Mock
+    private KafkaOperations<Object, Object> template;
 
     @BeforeEach
     void setup() {
-        invalidMessageRouter = new InvalidMessageRouter();
-        invalidMessageRouter.configure(Map.of("message-flags", flags, "invalid-topic", "invalid"));
+        invalidMessageRouter = new InvalidMessageRouter(ERROR_TOPIC.topic(), errorTemplate, "invalid", invalidTemplate);
     }
 
     @Test
-    void testOnSendRoutesMessageToInvalidMessageTopicIfNonRetryable() {
+    void shouldRouteNonRetryableAndUnclassifiedFailuresToInvalidTopic() {
         // given
-        ProducerRecord<String, Object> message = new ProducerRecord<>("main", 0, "key", "an invalid message",
-                List.of(new RecordHeader(ORIGINAL_PARTITION, BigInteger.ZERO.toByteArray()),
-                        new RecordHeader(ORIGINAL_OFFSET, BigInteger.ONE.toByteArray()),
-                        new RecordHeader(EXCEPTION_MESSAGE, "invalid".getBytes())));
+        BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> resolver =
+                invalidMessageRouter.destinationResolver((rec, ex) -> ERROR_TOPIC);
 
         // when
-        ProducerRecord<String, Object> actual = invalidMessageRouter.onSend(message);
+        TopicPartition nonRetryable = resolver.apply(consumerRecord,
+                new ListenerExecutionFailedException("failed", new NonRetryableException("non-retryable")));
+        TopicPartition invalidPayload = resolver.apply(consumerRecord,
+                new InvalidPayloadException("invalid", null));
+        TopicPartition unclassified = resolver.apply(consumerRecord, new IllegalStateException());
 
         // then
-        verify(flags, times(0)).destroy();
-        assertThat(actual).isEqualTo(new ProducerRecord<>("invalid", "key", "an invalid message"));
+        assertThat(nonRetryable).isEqualTo(new TopicPartition("invalid", -1));
+        assertThat(invalidPayload).isEqualTo(new TopicPartition("invalid", -1));
+        assertThat(unclassified).isEqualTo(new TopicPartition("invalid", -1));
     }
 
     @Test
-    void testOnSendRoutesMessageToTargetTopicIfRetryable() {
+    void shouldLeaveRetryableFailuresWithTheirDestination() {
         // given
-        ProducerRecord<String, Object> message = new ProducerRecord<>("main", "key", delta);
-        when(flags.isRetryable()).thenReturn(true);
+        Exception retryable = new ListenerExecutionFailedException("failed", new RetryableException("retry", null));
 
         // when
-        ProducerRecord<String, Object> actual = invalidMessageRouter.onSend(message);
+        TopicPartition retry = invalidMessageRouter.destinationResolver((rec, ex) -> RETRY_TOPIC)
+                .apply(consumerRecord, retryable);
+        TopicPartition exhausted = invalidMessageRouter.destinationResolver((rec, ex) -> ERROR_TOPIC)
+                .apply(consumerRecord, retryable);
+        TopicPartition none = invalidMessageRouter.destinationResolver((rec, ex) -> null)
+                .apply(consumerRecord, new NonRetryableException("non-retryable"));
 
         // then
-        assertThat(actual).isSameAs((message));
-        verify(flags, times(1)).destroy();
+        assertThat(retry).isEqualTo(RETRY_TOPIC);
+        assertThat(exhausted).isEqualTo(ERROR_TOPIC);
+        assertThat(none).isNull();
+    }
+
+    @Test
+    void shouldClassifyRetriedRecordByRootOfCurrentFailureNotEarlierAttemptHeaders() {
+        // given
+        ConsumerRecord<String, Object> retried = new ConsumerRecord<>(RETRY_TOPIC.topic(), 0, 1L, "key", "message");
+        retried.headers()
+                .add(new RecordHeader(KafkaHeaders.DLT_EXCEPTION_FQCN,
+                        ListenerExecutionFailedException.class.getName().getBytes(StandardCharsets.UTF_8)))
+                .add(new RecordHeader(KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN,
+                        RetryableException.class.getName().getBytes(StandardCharsets.UTF_8)));
+        BiFunction<ConsumerRecord<?, ?>, Exception, TopicPartition> resolver =
+                invalidMessageRouter.destinationResolver((rec, ex) -> RETRY_TOPIC);
+
+        // when
+        TopicPartition nestedRetryable = resolver.apply(retried, new ListenerExecutionFailedException("failed",
+                new CompletionException(new IllegalStateException(new RetryableException("retry", null)))));
+        TopicPartition nowNonRetryable = resolver.apply(retried, new ListenerExecutionFailedException("failed",
+                new CompletionException(new NonRetryableException("non-retryable"))));
+
+        // then
+        assertThat(nestedRetryable).isEqualTo(RETRY_TOPIC);
+        assertThat(nowNonRetryable).isEqualTo(new TopicPartition("invalid", -1));
+    }
+
+    @Test
+    void shouldPublishThroughTemplateOfDestination() {
+        // given
+        Function<ProducerRecord<?, ?>, KafkaOperations<?, ?>> resolver =
+                invalidMessageRouter.templateResolver(outRecord -> template);
+
+        // when
+        KafkaOperations<?, ?> invalid = resolver.apply(new ProducerRecord<>("invalid", "key", "value"));
+        KafkaOperations<?, ?> error = resolver.apply(new ProducerRecord<>(ERROR_TOPIC.topic(), "key", "value"));
+        KafkaOperations<?, ?> retry = resolver.apply(new ProducerRecord<>(RETRY_TOPIC.topic(), "key", "value"));
+
+        // then
+        assertThat(invalid).isSameAs(invalidTemplate);
+        assertThat(error).isSameAs(errorTemplate);
+        assertThat(retry).isSameAs(template);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepOriginalHeadersAndConfirmInvalidTopicSend() {
+        // given
+        consumerRecord.headers().add(new RecordHeader("original", "header".getBytes()));
+        when(invalidTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(null));
+        DeadLetterPublishingRecoverer recoverer = invalidMessageRouter.recoverer(outRecord -> template,
+                (rec, ex) -> ERROR_TOPIC);
+        recoverer.addHeadersFunction(FailureClassification::headers);
+
+        // when
+        recoverer.accept(consumerRecord, null, new NonRetryableException("non-retryable"));
+
+        // then
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(invalidTemplate).send(captor.capture());
+        verify(template, never()).send(any(ProducerRecord.class));
+        ProducerRecord<String, Object> actual = captor.getValue();
+        assertThat(actual.topic()).isEqualTo("invalid");
+        assertThat(actual.key()).isEqualTo("key");
+        assertThat(actual.value()).isEqualTo("an invalid message");
+        assertThat(actual.headers().lastHeader("original").value()).isEqualTo("header".getBytes());
+        assertThat(new String(actual.headers().lastHeader(FailureClassification.CLASSIFICATION_HEADER).value()))
+                .isEqualTo("non_retryable");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFailRecoveryWhenInvalidTopicSendFails() {
+        // given
+        when(invalidTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("broker unavailable")));
+        DeadLetterPublishingRecoverer recoverer = invalidMessageRouter.recoverer(outRecord -> template,
+                (rec, ex) -> ERROR_TOPIC);
+
+        // when, then
+        assertThatThrownBy(() -> recoverer.accept(consumerRecord, null, new NonRetryableException("non-retryable")))
+                .isInstanceOf(KafkaException.class)
+                .hasMessageStartingWith("Dead-letter publication to invalid failed");
     }
 }
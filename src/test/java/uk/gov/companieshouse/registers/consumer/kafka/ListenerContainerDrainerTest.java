@@ -0,0 +1,65 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.AbstractMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+@ExtendWith(MockitoExtension.class)
+class ListenerContainerDrainerTest {
+
+    private static final Set<TopicPartition> PARTITIONS = Set.of(new TopicPartition("registers-delta", 0));
+
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+    @Mock
+    private InFlightRecords inFlightRecords;
+    @Mock
+    private MessageListenerContainer container;
+
+    private ListenerContainerDrainer drainer;
+
+    @BeforeEach
+    void setUp() {
+        drainer = new ListenerContainerDrainer(registry, inFlightRecords, 20_000L);
+    }
+
+    @Test
+    void shouldStopBeforeListenerContainers() {
+        assertThat(drainer.getPhase()).isGreaterThan(AbstractMessageListenerContainer.DEFAULT_PHASE);
+    }
+
+    @Test
+    void shouldPauseContainersThenWaitForRecordsInFlight() {
+        // given
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(inFlightRecords.partitions()).thenReturn(PARTITIONS);
+        when(inFlightRecords.awaitCompletion(PARTITIONS, Duration.ofSeconds(20))).thenReturn(true);
+        drainer.start();
+        boolean drainingBeforeStop = drainer.isDraining();
+
+        // when
+        drainer.stop();
+
+        // then
+        InOrder inOrder = inOrder(container, inFlightRecords);
+        inOrder.verify(container).pause();
+        inOrder.verify(inFlightRecords).awaitCompletion(PARTITIONS, Duration.ofSeconds(20));
+        assertThat(drainer.isRunning()).isFalse();
+        assertThat(drainingBeforeStop).isFalse();
+        assertThat(drainer.isDraining()).isTrue();
+    }
+}
@@ -0,0 +1,127 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import uk.gov.companieshouse.registers.consumer.apiclient.ApiCallGuard;
+
+@ExtendWith(MockitoExtension.class)
+class ListenerContainerPauserTest {
+
+    private ListenerContainerPauser pauser;
+
+    @Mock
+    private ApiCallGuard apiCallGuard;
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+    @Mock
+    private ListenerContainerDrainer drainer;
+    @Mock
+    private MessageListenerContainer container;
+    @Mock
+    private MessageListenerContainer pausedElsewhere;
+
+    @BeforeEach
+    void setUp() {
+        pauser = new ListenerContainerPauser(apiCallGuard, registry, drainer);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pauser.close();
+    }
+
+    @Test
+    void shouldRegisterForCircuitChanges() {
+        verify(apiCallGuard).addCircuitListener(pauser);
+    }
+
+    @Test
+    void shouldPauseContainersAndResumeOnceOpenDurationHasPassed() {
+        // given
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isPauseRequested()).thenReturn(false, true);
+
+        // when
+        pauser.opened(Duration.ofMillis(50));
+
+        // then
+        verify(container).pause();
+        verify(container, timeout(5000)).resume();
+    }
+
+    @Test
+    void shouldNotResumeEarlyWhenCircuitReopens() throws Exception {
+        // given
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        pauser.opened(Duration.ofMillis(50));
+
+        // when
+        pauser.opened(Duration.ofMinutes(1));
+        Thread.sleep(200);
+
+        // then
+        verify(container, never()).resume();
+    }
+
+    @Test
+    void shouldResumePausedContainersWhenCircuitCloses() {
+        // given
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isPauseRequested()).thenReturn(false, true);
+        pauser.opened(Duration.ofMinutes(1));
+
+        // when
+        pauser.closed();
+
+        // then
+        verify(container).resume();
+    }
+
+    @Test
+    void shouldOnlyResumeContainersItPaused() {
+        // given
+        when(registry.getListenerContainers()).thenReturn(List.of(container, pausedElsewhere));
+        when(container.isPauseRequested()).thenReturn(false, true);
+        when(pausedElsewhere.isPauseRequested()).thenReturn(true);
+        pauser.opened(Duration.ofMinutes(1));
+
+        // when
+        pauser.closed();
+        pauser.closed();
+
+        // then
+        verify(container).resume();
+        verify(pausedElsewhere, never()).pause();
+        verify(pausedElsewhere, never()).resume();
+    }
+
+    @Test
+    void shouldLeaveContainersPausedOnceDraining() {
+        // given
+        when(registry.getListenerContainers()).thenReturn(List.of(container));
+        when(container.isPauseRequested()).thenReturn(false);
+        pauser.opened(Duration.ofMinutes(1));
+        when(drainer.isDraining()).thenReturn(true);
+
+        // when
+        pauser.closed();
+        pauser.opened(Duration.ofMinutes(1));
+
+        // then
+        verify(container).pause();
+        verify(container, never()).resume();
+    }
+}
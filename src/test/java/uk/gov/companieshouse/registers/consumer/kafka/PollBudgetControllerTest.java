@@ -0,0 +1,107 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+
+@ExtendWith(MockitoExtension.class)
+class PollBudgetControllerTest {
+
+    private static final String TOPIC = "registers-delta";
+    private static final ConsumerRecord<String, ChsDelta> RECORD = new ConsumerRecord<>(TOPIC, 1, 10L, "key", null);
+
+    @Mock
+    private KafkaListenerEndpointRegistry registry;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+    @Mock
+    private Consumer<String, ChsDelta> consumer;
+    @Mock
+    private ConcurrentMessageListenerContainer<String, ChsDelta> parent;
+    @Mock
+    private KafkaMessageListenerContainer<String, ChsDelta> other;
+    @Mock
+    private KafkaMessageListenerContainer<String, ChsDelta> child;
+
+    @Test
+    void shouldLeaveContainersAloneWhileWithinBudget() {
+        // given
+        PollBudgetController controller = new PollBudgetController(registry, deltaMetrics, 300_000L, 0.5);
+
+        // when
+        controller.setupThreadState(consumer);
+        controller.intercept(RECORD, consumer);
+        controller.afterRecord(RECORD, consumer);
+        controller.setupThreadState(consumer);
+
+        // then
+        verifyNoInteractions(registry);
+        verify(deltaMetrics).recordPollLoop(anyLong());
+        verify(deltaMetrics, never()).recordPollCutShort();
+    }
+
+    @Test
+    void shouldPauseContainerOfRecordOnceBudgetIsUsedAndResumeItAtNextPoll() {
+        // given
+        PollBudgetController controller = new PollBudgetController(registry, deltaMetrics, 300_000L, 0.0);
+        givenContainers();
+
+        // when
+        controller.setupThreadState(consumer);
+        controller.intercept(RECORD, consumer);
+        controller.afterRecord(RECORD, consumer);
+
+        // then
+        verify(child).pause();
+        verify(other, never()).pause();
+        verify(deltaMetrics).recordPollCutShort();
+
+        // when
+        controller.setupThreadState(consumer);
+
+        // then
+        verify(child).resume();
+    }
+
+    @Test
+    void shouldLeaveContainerPausedWhenParentHasBeenPausedSince() {
+        // given
+        PollBudgetController controller = new PollBudgetController(registry, deltaMetrics, 300_000L, 0.0);
+        givenContainers();
+        when(parent.isPauseRequested()).thenReturn(true);
+
+        // when
+        controller.setupThreadState(consumer);
+        controller.intercept(RECORD, consumer);
+        controller.afterRecord(RECORD, consumer);
+        controller.setupThreadState(consumer);
+
+        // then
+        verify(child).pause();
+        verify(child, never()).resume();
+    }
+
+    private void givenContainers() {
+        when(registry.getListenerContainers()).thenReturn(List.of(parent));
+        when(parent.getContainers()).thenReturn(List.of(other, child));
+        when(other.getAssignedPartitions()).thenReturn(Set.of(new TopicPartition(TOPIC, 0)));
+        when(child.getAssignedPartitions()).thenReturn(Set.of(new TopicPartition(TOPIC, 1)));
+    }
+}
@@ -0,0 +1,63 @@
+package uk.gov.companieshouse.registers.consumer.kafka;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer.SingleRecordHeader;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
+
+class RetryBackOffJitterTest {
+
+    private static final String TOPIC = "registers-delta";
+
+    private final RetryBackOffJitter jitter = new RetryBackOffJitter(100L, 2.0, 500L, 0.5);
+
+    @Test
+    void shouldGrowDelayExponentiallyUpToMax() {
+        assertThat(jitter.delay(1)).isEqualTo(100L);
+        assertThat(jitter.delay(2)).isEqualTo(200L);
+        assertThat(jitter.delay(3)).isEqualTo(400L);
+        assertThat(jitter.delay(4)).isEqualTo(500L);
+        assertThat(jitter.delay(10)).isEqualTo(500L);
+    }
+
+    @Test
+    void shouldReplaceBackOffTimestampWithJitteredDelayForFirstAttempt() {
+        // given
+        ConsumerRecord<String, byte[]> consumerRecord = new ConsumerRecord<>(TOPIC, 0, 0L, "key", new byte[0]);
+
+        // when
+        long before = System.currentTimeMillis();
+        Headers actual = jitter.headers(consumerRecord, new RuntimeException());
+        long after = System.currentTimeMillis();
+
+        // then
+        Header header = actual.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP);
+        assertThat(header).isInstanceOf(SingleRecordHeader.class);
+        assertThat(new BigInteger(header.value()).longValue()).isBetween(before + 50L, after + 100L);
+    }
+
+    @Test
+    void shouldUseDelayOfAttemptCarriedByRetriedRecord() {
+        // given
+        ConsumerRecord<String, byte[]> consumerRecord = new ConsumerRecord<>(TOPIC + "-retry-200", 0, 0L, "key",
+                new byte[0]);
+        consumerRecord.headers().add(RetryTopicHeaders.DEFAULT_HEADER_ATTEMPTS,
+                ByteBuffer.allocate(Integer.BYTES).putInt(3).array());
+
+        // when
+        long before = System.currentTimeMillis();
+        Headers actual = jitter.headers(consumerRecord, new RuntimeException());
+        long after = System.currentTimeMillis();
+
+        // then
+        long dueAt = new BigInteger(actual.lastHeader(RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP).value())
+                .longValue();
+        assertThat(dueAt).isBetween(before + 200L, after + 400L);
+    }
+}
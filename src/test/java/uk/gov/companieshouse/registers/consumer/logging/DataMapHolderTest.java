@@ -2,8 +2,10 @@ package uk.gov.companieshouse.registers.consumer.logging;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import org.apache.kafka.common.TopicPartition;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import uk.gov.companieshouse.logging.util.DataMap;
@@ -35,6 +37,14 @@ class DataMapHolderTest {
         assertEquals("requestId", dataMap.getLogMap().get("request_id"));
     }
 
+    @Test
+    void getTopicPartition() {
+        assertNull(DataMapHolder.getTopicPartition());
+
+        DataMapHolder.get().topic("topic").partition(2);
+        assertEquals(new TopicPartition("topic", 2), DataMapHolder.getTopicPartition());
+    }
+
     @Test
     void clear() {
         DataMapHolder.clear();
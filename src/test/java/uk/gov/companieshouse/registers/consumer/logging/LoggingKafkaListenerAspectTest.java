@@ -4,8 +4,14 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,16 +21,20 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.system.CapturedOutput;
 import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.kafka.retrytopic.RetryTopicHeaders;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import uk.gov.companieshouse.delta.ChsDelta;
 import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
 import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
 
 @ExtendWith(MockitoExtension.class)
 class LoggingKafkaListenerAspectTest {
 
     private static final String CONTEXT_ID = "context_id";
     private static final String TOPIC = "registers-delta";
+    private static final String RETRY_TOPIC = "registers-delta-registers-delta-consumer-retry-200";
 
     private LoggingKafkaListenerAspect aspect;
 
@@ -36,10 +46,12 @@ class LoggingKafkaListenerAspectTest {
     private ChsDelta delta;
     @Mock
     private Message<String> invalidMessage;
+    @Mock
+    private DeltaMetrics deltaMetrics;
 
     @BeforeEach
     void setUp() {
-        aspect = new LoggingKafkaListenerAspect(5);
+        aspect = new LoggingKafkaListenerAspect(5, deltaMetrics);
     }
 
     @Test
@@ -60,6 +72,7 @@ class LoggingKafkaListenerAspectTest {
         assertEquals(expected, actual);
         assertTrue(capture.getOut().contains("Processed delta"));
         verifyInfoLogMap(capture);
+        verify(deltaMetrics).recordSuccess();
     }
 
     @Test
@@ -100,6 +113,7 @@ class LoggingKafkaListenerAspectTest {
         assertThrows(RetryableException.class, actual);
         assertTrue(capture.getOut().contains("RetryableException exception thrown"));
         verifyInfoLogMap(capture);
+        verify(deltaMetrics).recordFailure(any(RetryableException.class));
     }
 
     @Test
@@ -126,6 +140,70 @@ class LoggingKafkaListenerAspectTest {
         assertTrue(capture.getOut().contains("\"offset\":0"));
     }
 
+    @Test
+    @ExtendWith(OutputCaptureExtension.class)
+    void shouldLogProcessedWhenAsyncResultCompletes(CapturedOutput capture) throws Throwable {
+        // given
+        Object[] args = new Object[]{message, null, TOPIC, 0, 0L};
+        CompletableFuture<Void> expected = new CompletableFuture<>();
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(message.getPayload()).thenReturn(delta);
+        when(delta.getContextId()).thenReturn(CONTEXT_ID);
+        when(joinPoint.proceed()).thenReturn(expected);
+
+        // when
+        Object actual = aspect.manageStructuredLogging(joinPoint);
+
+        //then
+        assertEquals(expected, actual);
+        assertFalse(capture.getOut().contains("Processed delta"));
+        verify(deltaMetrics, never()).recordSuccess();
+        expected.complete(null);
+        assertTrue(capture.getOut().contains("Processed delta"));
+        verifyInfoLogMap(capture);
+    }
+
+    @Test
+    @ExtendWith(OutputCaptureExtension.class)
+    void shouldLogInfoWhenAsyncResultFailsWithRetryableException(CapturedOutput capture) throws Throwable {
+        // given
+        Object[] args = new Object[]{message, null, TOPIC, 0, 0L};
+        CompletableFuture<Void> expected = new CompletableFuture<>();
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(message.getPayload()).thenReturn(delta);
+        when(delta.getContextId()).thenReturn(CONTEXT_ID);
+        when(joinPoint.proceed()).thenReturn(expected);
+
+        // when
+        aspect.manageStructuredLogging(joinPoint);
+        RetryableException failure = new RetryableException("retryable", null);
+        expected.completeExceptionally(failure);
+
+        //then
+        assertTrue(capture.getOut().contains("RetryableException exception thrown"));
+        verifyInfoLogMap(capture);
+        verify(deltaMetrics).recordFailure(failure);
+    }
+
+    @Test
+    void shouldRecordRetryAgainstRetryTopic() throws Throwable {
+        // given
+        long dueAt = System.currentTimeMillis();
+        Object[] args = new Object[]{message, 2, RETRY_TOPIC, 0, 0L};
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(message.getPayload()).thenReturn(delta);
+        when(message.getHeaders()).thenReturn(new MessageHeaders(Map.of(
+                RetryTopicHeaders.DEFAULT_HEADER_BACKOFF_TIMESTAMP, BigInteger.valueOf(dueAt).toByteArray())));
+        when(delta.getContextId()).thenReturn(CONTEXT_ID);
+
+        // when
+        aspect.manageStructuredLogging(joinPoint);
+
+        //then
+        verify(deltaMetrics).recordRetry(RETRY_TOPIC, dueAt);
+        verify(deltaMetrics).recordSuccess();
+    }
+
     @Test
     @ExtendWith(OutputCaptureExtension.class)
     void shouldLogInfoWhenInvalidPayload(CapturedOutput capture) {
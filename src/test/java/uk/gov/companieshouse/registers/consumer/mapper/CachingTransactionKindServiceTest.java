@@ -0,0 +1,68 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.filinghistory.utils.TransactionKindService;
+
+class CachingTransactionKindServiceTest {
+
+    private static final String SALT = "salt";
+    private static final String TRANSACTION_ID = "MDAxMTEyNzExOGFkaXF6a2N4";
+
+    private CachingTransactionKindService service;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CachingTransactionKindService(SALT, 10, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @Test
+    void shouldEncodeTheSameAsUncachedService() {
+        // given
+        String expected = new TransactionKindService(SALT).encodeTransactionId(TRANSACTION_ID);
+
+        // when
+        String first = service.encodeTransactionId(TRANSACTION_ID);
+        String second = service.encodeTransactionId(TRANSACTION_ID);
+
+        // then
+        assertThat(first).isEqualTo(expected);
+        assertThat(second).isEqualTo(expected);
+    }
+
+    @Test
+    void shouldReportHitsAndMisses() {
+        // when
+        service.encodeTransactionId(TRANSACTION_ID);
+        service.encodeTransactionId(TRANSACTION_ID);
+        service.encodeTransactionId(TRANSACTION_ID);
+
+        // then
+        assertThat(gets("miss")).isOne();
+        assertThat(gets("hit")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotCacheWhenMaxSizeIsZero() {
+        // given
+        service = new CachingTransactionKindService(SALT, 0, Duration.ofMinutes(1), meterRegistry);
+
+        // when
+        service.encodeTransactionId(TRANSACTION_ID);
+        service.encodeTransactionId(TRANSACTION_ID);
+
+        // then
+        assertThat(gets("hit")).isZero();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", CachingTransactionKindService.CACHE_NAME)
+                .tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,147 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DeltaDateParserTest {
+
+    // the formatter-based parsing InternalRegistersMapper used before, which DeltaDateParser must match exactly
+    private static final DateTimeFormatter DELTA_AT_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS")
+            .withZone(ZoneId.of("Z"));
+    private static final DateTimeFormatter MOVED_ON_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final Function<String, Object> FORMATTER_DELTA_AT =
+            text -> ZonedDateTime.parse(text, DELTA_AT_FORMATTER).toOffsetDateTime();
+    private static final Function<String, Object> FORMATTER_MOVED_ON =
+            text -> LocalDate.parse(text, MOVED_ON_FORMATTER);
+
+    private static final int SAMPLES = 2_000;
+    private static final String ALPHABET = "0123456789+- :.Tx";
+
+    @Test
+    void shouldParseDeltaAt() {
+        assertEquals(OffsetDateTime.of(2023, 10, 30, 11, 18, 6, 428_778_000, ZoneOffset.UTC),
+                DeltaDateParser.parseDeltaAt("20231030111806428778"));
+    }
+
+    @Test
+    void shouldParseMovedOn() {
+        assertEquals(LocalDate.of(2023, 10, 30), DeltaDateParser.parseMovedOn("20231030111806"));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "20230229000000", "20240229000000", "19000229000000", "20000229000000", "20230431000000",
+            "20230432000000", "20231300000000", "20231000000000", "20231001240000", "20231001236000",
+            "20231001235960", "00001030111806", "120231030111806", "+120231030111806", "2023103011180",
+            "2023-10-30T11:1", "20231030111806428778"})
+    void shouldMatchFormatterForMovedOnEdgeCases(String text) {
+        assertSameOutcome(FORMATTER_MOVED_ON, DeltaDateParser::parseMovedOn, text);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "20230229000000000000", "20240229235959999999", "20230431000000000000", "20231001240000000000",
+            "20231001235960000000", "00001030111806428778", "120231030111806428778", "2023103011180642877",
+            "2023103011180642877x", "20231030111806"})
+    void shouldMatchFormatterForDeltaAtEdgeCases(String text) {
+        assertSameOutcome(FORMATTER_DELTA_AT, DeltaDateParser::parseDeltaAt, text);
+    }
+
+    // property-based: a fixed seed per run keeps any failure reproducible
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void shouldMatchFormatterForValidDateTimes(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < SAMPLES; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(1 + random.nextInt(9999), 1, 1, 0, 0)
+                    .plusSeconds(random.nextLong(366L * 24 * 60 * 60))
+                    .withNano(random.nextInt(1_000_000) * 1_000);
+            assertSameOutcome(FORMATTER_MOVED_ON, DeltaDateParser::parseMovedOn,
+                    dateTime.format(MOVED_ON_FORMATTER));
+            assertSameOutcome(FORMATTER_DELTA_AT, DeltaDateParser::parseDeltaAt,
+                    dateTime.format(DELTA_AT_FORMATTER));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void shouldMatchFormatterForFixedWidthDigits(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertSameOutcome(FORMATTER_MOVED_ON, DeltaDateParser::parseMovedOn, nearlyValid(random, 14));
+            assertSameOutcome(FORMATTER_DELTA_AT, DeltaDateParser::parseDeltaAt, nearlyValid(random, 20));
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("seeds")
+    void shouldMatchFormatterForArbitraryText(long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertSameOutcome(FORMATTER_MOVED_ON, DeltaDateParser::parseMovedOn, arbitrary(random, 22));
+            assertSameOutcome(FORMATTER_DELTA_AT, DeltaDateParser::parseDeltaAt, arbitrary(random, 22));
+        }
+    }
+
+    private static LongStream seeds() {
+        return LongStream.rangeClosed(1, 5);
+    }
+
+    // digits in the usual ranges with each field occasionally pushed just past its limit
+    private static String nearlyValid(Random random, int length) {
+        StringBuilder text = new StringBuilder()
+                .append("%04d".formatted(random.nextInt(10) == 0 ? random.nextInt(10_000) : 1900 + random.nextInt(200)))
+                .append("%02d".formatted(random.nextInt(14)))
+                .append("%02d".formatted(random.nextInt(33)))
+                .append("%02d".formatted(random.nextInt(26)))
+                .append("%02d".formatted(random.nextInt(62)))
+                .append("%02d".formatted(random.nextInt(62)));
+        while (text.length() < length) {
+            text.append(random.nextInt(10));
+        }
+        return text.toString();
+    }
+
+    private static String arbitrary(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(random.nextInt(4) == 0
+                    ? ALPHABET.charAt(random.nextInt(ALPHABET.length()))
+                    : (char) ('0' + random.nextInt(10)));
+        }
+        return text.toString();
+    }
+
+    private static void assertSameOutcome(Function<String, Object> expected, Function<String, Object> actual,
+            String text) {
+        assertEquals(outcome(expected, text), outcome(actual, text), () -> "for input [%s]".formatted(text));
+    }
+
+    private static Object outcome(Function<String, Object> parser, String text) {
+        try {
+            return parser.apply(text);
+        } catch (RuntimeException ex) {
+            return Stream.of(ex.getClass().getName(), ex.getMessage()).toList();
+        }
+    }
+}
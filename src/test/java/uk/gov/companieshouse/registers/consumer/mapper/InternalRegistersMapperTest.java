@@ -3,6 +3,8 @@ package uk.gov.companieshouse.registers.consumer.mapper;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -11,6 +13,7 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
@@ -34,6 +37,8 @@ import uk.gov.companieshouse.api.registers.RegisteredItems;
 import uk.gov.companieshouse.api.registers.RegisteredItems.RegisterMovedToEnum;
 import uk.gov.companieshouse.api.registers.Registers;
 import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
 
 @ExtendWith(MockitoExtension.class)
 class InternalRegistersMapperTest {
@@ -63,6 +68,10 @@ class InternalRegistersMapperTest {
     private InternalRegistersMapper mapper;
     @Mock
     private TransactionKindService transactionKindService;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+    @Mock
+    private ParallelRegisterMapping parallelMapping;
 
     @Test
     void mapInternalRegistersDirectorsWithFilingHistoryLink() {
@@ -91,6 +100,7 @@ class InternalRegistersMapperTest {
         // then
         assertEquals(expected, actual);
         verify(transactionKindService).encodeTransactionId(TRANSACTION_ID);
+        verify(deltaMetrics).recordStage(eq(Stage.MAPPING), anyLong());
     }
 
     @Test
@@ -379,6 +389,68 @@ class InternalRegistersMapperTest {
         verifyNoInteractions(transactionKindService);
     }
 
+    @Test
+    void mapInternalRegistersInParallelSameAsSequential() {
+        // given
+        RegisterDelta delta = getBaseRegisterDelta()
+                .directors(new RegisterSection()
+                        .items(List.of(
+                                new RegisterItem()
+                                        .chipsDescription(ROA)
+                                        .movedOn("20221030111806"),
+                                new RegisterItem()
+                                        .transactionId(TRANSACTION_ID)
+                                        .chipsDescription(COMPANIES_HOUSE)
+                                        .movedOn("20231030111806"))))
+                .members(new RegisterSection()
+                        .items(List.of(new RegisterItem()
+                                .chipsDescription(SAIL)
+                                .movedOn("20231030111806"))))
+                .llpUsualResidentialAddress(new RegisterSection()
+                        .items(List.of(new RegisterItem()
+                                .chipsDescription(UNSPECIFIED)
+                                .movedOn("20231030111806"))));
+        when(transactionKindService.encodeTransactionId(any())).thenReturn(ENCODED_ID);
+        InternalRegistersMapper expected = new InternalRegistersMapper(transactionKindService, deltaMetrics,
+                ParallelRegisterMapping.disabled());
+
+        // when
+        InternalRegisters actual;
+        try (ParallelRegisterMapping parallel = new ParallelRegisterMapping(new ForkJoinPool(2), 0)) {
+            actual = new InternalRegistersMapper(transactionKindService, deltaMetrics, parallel)
+                    .mapInternalRegisters(delta, CONTEXT_ID);
+        }
+
+        // then
+        assertEquals(expected.mapInternalRegisters(delta, CONTEXT_ID), actual);
+    }
+
+    @Test
+    void mapInternalRegistersInParallelInvalidChipsDescription() {
+        // given
+        RegisterDelta delta = getBaseRegisterDelta()
+                .directors(new RegisterSection()
+                        .items(List.of(new RegisterItem()
+                                .chipsDescription(ROA)
+                                .movedOn("20231030111806"))))
+                .members(new RegisterSection()
+                        .items(List.of(new RegisterItem()
+                                .chipsDescription("invalid")
+                                .movedOn("20231030111806"))));
+
+        // when
+        InvalidPayloadException exception;
+        try (ParallelRegisterMapping parallel = new ParallelRegisterMapping(new ForkJoinPool(2), 2)) {
+            InternalRegistersMapper parallelMapper = new InternalRegistersMapper(transactionKindService,
+                    deltaMetrics, parallel);
+            exception = assertThrows(InvalidPayloadException.class,
+                    () -> parallelMapper.mapInternalRegisters(delta, CONTEXT_ID));
+        }
+
+        // then
+        assertEquals("Invalid CHIPS Description: [invalid]", exception.getMessage());
+    }
+
     private static InternalRegisters getExpected(Registers registers) {
         return new InternalRegisters()
                 .externalData(registers)
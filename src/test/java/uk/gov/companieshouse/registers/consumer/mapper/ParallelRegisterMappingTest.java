@@ -0,0 +1,60 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+
+class ParallelRegisterMappingTest {
+
+    private ParallelRegisterMapping parallelMapping;
+
+    @BeforeEach
+    void setUp() {
+        parallelMapping = new ParallelRegisterMapping(new ForkJoinPool(2), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelMapping.close();
+    }
+
+    @Test
+    void shouldApplyOnlyFromThreshold() {
+        assertThat(parallelMapping.appliesTo(99)).isFalse();
+        assertThat(parallelMapping.appliesTo(100)).isTrue();
+    }
+
+    @Test
+    void shouldNeverApplyWhenDisabled() {
+        assertThat(ParallelRegisterMapping.disabled().appliesTo(Integer.MAX_VALUE)).isFalse();
+    }
+
+    @Test
+    void shouldRunTaskOnExecutor() {
+        // when
+        Supplier<String> actual = parallelMapping.fork(() -> Thread.currentThread().getName());
+
+        // then
+        assertThat(actual.get()).startsWith("ForkJoinPool-");
+    }
+
+    @Test
+    void shouldRethrowTaskExceptionUnwrapped() {
+        // given
+        InvalidPayloadException failure = new InvalidPayloadException("invalid");
+
+        // when
+        Supplier<String> actual = parallelMapping.fork(() -> {
+            throw failure;
+        });
+
+        // then
+        assertThatThrownBy(actual::get).isSameAs(failure);
+    }
+}
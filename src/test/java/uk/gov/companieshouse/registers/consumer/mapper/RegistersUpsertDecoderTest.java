@@ -0,0 +1,153 @@
+package uk.gov.companieshouse.registers.consumer.mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.api.delta.RegisterDelta;
+import uk.gov.companieshouse.api.filinghistory.utils.TransactionKindService;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.registers.consumer.exception.InvalidPayloadException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.serdes.SerdesConfig;
+
+@ExtendWith(MockitoExtension.class)
+class RegistersUpsertDecoderTest {
+
+    private static final String CONTEXT_ID = "context_id";
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String DELTA_AT = "20231030111806428778";
+
+    private final ObjectMapper objectMapper = new SerdesConfig().objectMapper();
+
+    private RegistersUpsertDecoder decoder;
+    private InternalRegistersMapper mapper;
+
+    @Mock
+    private RegistersDeltaDeserialiser deserialiser;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+
+    @BeforeEach
+    void setUp() {
+        mapper = new InternalRegistersMapper(new TransactionKindService("salt"), deltaMetrics,
+                ParallelRegisterMapping.disabled());
+        decoder = new RegistersUpsertDecoder(deserialiser, mapper, objectMapper, deltaMetrics, true);
+        lenient().when(deserialiser.deserialiseRegistersDelta(any()))
+                .thenAnswer(invocation -> objectMapper.readValue((String) invocation.getArgument(0),
+                        RegisterDelta.class));
+    }
+
+    @Test
+    void shouldStreamFixtureToSameRequestAsDatabindPath() throws IOException {
+        // given
+        String data = resource("/registers-delta.json");
+
+        // when
+        RegistersUpsert actual = decoder.decode(data, CONTEXT_ID);
+
+        // then
+        assertEquals(COMPANY_NUMBER, actual.companyNumber());
+        assertEquals(DELTA_AT, actual.deltaAt());
+        assertEquals(expected(data), actual.request());
+        verify(deserialiser, never()).deserialiseRegistersDelta(any());
+        verify(deltaMetrics).recordStage(eq(Stage.STREAMING_DECODE), anyLong());
+    }
+
+    @Test
+    void shouldSortItemsAndLinkFilingHistoryLikeDatabindPath() throws IOException {
+        // given
+        String data = """
+                {"company_number":"%s","directors":{"items":[
+                {"moved_on":"20201030111806","chips_description":"ROA","transaction_id":"1"},
+                {"moved_on":"20231030111806","chips_description":"COMPANIES_HOUSE","transaction_id":"2"},
+                {"moved_on":"20221030111806","chips_description":"SAIL","transaction_id":null}]},
+                "llp_members":null,"delta_at":"%s"}""".formatted(COMPANY_NUMBER, DELTA_AT);
+
+        // when
+        RegistersUpsert actual = decoder.decode(data, CONTEXT_ID);
+
+        // then
+        assertEquals(expected(data), actual.request());
+        verify(deserialiser, never()).deserialiseRegistersDelta(any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // company number after a register
+            """
+                    {"directors":{"items":[{"moved_on":"20231030111806","chips_description":"ROA"}]},
+                    "company_number":"12345678","delta_at":"20231030111806428778"}""",
+            // company number that databind coerces from a number
+            """
+                    {"company_number":12345678,"delta_at":"20231030111806428778"}"""
+    })
+    void shouldFallBackToDatabindPathForLayoutItDoesNotStream(String data) throws IOException {
+        // when
+        RegistersUpsert actual = decoder.decode(data, CONTEXT_ID);
+
+        // then
+        assertEquals(expected(data), actual.request());
+        verify(deserialiser).deserialiseRegistersDelta(data);
+    }
+
+    @Test
+    void shouldReportInvalidChipsDescriptionFromDatabindPath() {
+        // given
+        String data = """
+                {"company_number":"12345678","members":{"items":[
+                {"moved_on":"20231030111806","chips_description":"NOWHERE"}]},"delta_at":"20231030111806428778"}""";
+
+        // when
+        Executable actual = () -> decoder.decode(data, CONTEXT_ID);
+
+        // then
+        InvalidPayloadException exception = assertThrows(InvalidPayloadException.class, actual);
+        assertEquals("Invalid CHIPS Description: [NOWHERE]", exception.getMessage());
+        verify(deserialiser).deserialiseRegistersDelta(data);
+    }
+
+    @Test
+    void shouldUseDatabindPathWhenStreamingDisabled() throws IOException {
+        // given
+        decoder = new RegistersUpsertDecoder(deserialiser, mapper, objectMapper, deltaMetrics, false);
+        String data = resource("/registers-delta.json");
+
+        // when
+        RegistersUpsert actual = decoder.decode(data, CONTEXT_ID);
+
+        // then
+        assertEquals(expected(data), actual.request());
+        verify(deserialiser).deserialiseRegistersDelta(data);
+        verify(deltaMetrics, never()).recordStage(eq(Stage.STREAMING_DECODE), anyLong());
+    }
+
+    private InternalRegisters expected(String data) throws IOException {
+        return mapper.mapInternalRegisters(objectMapper.readValue(data, RegisterDelta.class), CONTEXT_ID);
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream inputStream = RegistersUpsertDecoderTest.class.getResourceAsStream(name)) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package uk.gov.companieshouse.registers.consumer.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.lang.management.ManagementFactory;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
+
+class DeltaMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DeltaMetrics deltaMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deltaMetrics = new DeltaMetrics(meterRegistry);
+    }
+
+    @Test
+    void shouldRecordStageDurationAgainstStageTag() {
+        // given
+        long start = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(5);
+
+        // when
+        deltaMetrics.recordStage(Stage.MAPPING, start);
+
+        // then
+        assertThat(meterRegistry.get("registers.delta.stage").tag("stage", "mapping").timer().count()).isOne();
+        assertThat(meterRegistry.get("registers.delta.stage").tag("stage", "mapping").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(5);
+        assertThat(meterRegistry.get("registers.delta.stage").tag("stage", "avro_decode").timer().count()).isZero();
+    }
+
+    @Test
+    void shouldTagApiCallsByOperationAndStatus() {
+        // given
+        long start = System.nanoTime();
+
+        // when
+        deltaMetrics.recordApiCall(ApiOperation.UPSERT, 200, start);
+        deltaMetrics.recordApiCall(ApiOperation.UPSERT, 503, start);
+        deltaMetrics.recordApiCall(ApiOperation.DELETE, null, start);
+
+        // then
+        assertThat(meterRegistry.get("registers.api.request").tag("operation", "upsert").tag("status", "200")
+                .timer().count()).isOne();
+        assertThat(meterRegistry.get("registers.api.request").tag("operation", "upsert").tag("status", "503")
+                .timer().count()).isOne();
+        assertThat(meterRegistry.get("registers.api.request").tag("operation", "delete").tag("status", "none")
+                .timer().count()).isOne();
+    }
+
+    @Test
+    void shouldRecordFreshnessFromDeltaAt() {
+        // given
+        OffsetDateTime deltaAt = OffsetDateTime.now().minusMinutes(5);
+
+        // when
+        deltaMetrics.recordFreshness(ApiOperation.DELETE, deltaAt);
+
+        // then
+        Timer timer = meterRegistry.get("registers.delta.freshness").tag("operation", "delete").timer();
+        assertThat(timer.count()).isOne();
+        assertThat(timer.totalTime(TimeUnit.SECONDS)).isBetween(299.0, 310.0);
+    }
+
+    @Test
+    void shouldRecordCommitLatencyPerTopic() {
+        // given
+        long recordTimestamp = 1_000L;
+
+        // when
+        deltaMetrics.recordCommitLatency("registers-delta", recordTimestamp, 1_250L);
+
+        // then
+        Timer timer = meterRegistry.get("registers.kafka.record.commit.latency").tag("topic", "registers-delta")
+                .timer();
+        assertThat(timer.count()).isOne();
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(250.0);
+    }
+
+    @Test
+    void shouldRecordRetryWaitPerRetryTopic() {
+        // given
+        String retryTopic = "registers-delta-registers-delta-consumer-retry-200";
+
+        // when
+        deltaMetrics.recordRetry(retryTopic, System.currentTimeMillis() - 5_000L);
+        deltaMetrics.recordRetry(retryTopic, System.currentTimeMillis() + 5_000L);
+
+        // then
+        Timer timer = meterRegistry.get("registers.delta.retry.wait").tag("topic", retryTopic).timer();
+        assertThat(timer.count()).isEqualTo(2);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isBetween(5_000.0, 6_000.0);
+    }
+
+    @Test
+    void shouldTimeCommitsByStrategyAndOutcome() {
+        // when
+        deltaMetrics.recordCommit("batched", false, System.nanoTime());
+        deltaMetrics.recordCommit("batched", false, System.nanoTime());
+        deltaMetrics.recordCommit("batched", true, System.nanoTime());
+
+        // then
+        assertThat(meterRegistry.get("registers.kafka.commit").tags("strategy", "batched", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("registers.kafka.commit").tags("strategy", "batched", "outcome", "failure")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRecordPollLoopsAndRebalances() {
+        // when
+        deltaMetrics.recordPollLoop(TimeUnit.SECONDS.toNanos(2));
+        deltaMetrics.recordPollCutShort();
+        deltaMetrics.recordRebalance("assigned");
+        deltaMetrics.recordRebalance("revoked");
+        deltaMetrics.recordRebalance("assigned");
+
+        // then
+        Timer pollLoop = meterRegistry.get("registers.kafka.poll.loop").timer();
+        assertThat(pollLoop.count()).isEqualTo(1);
+        assertThat(pollLoop.totalTime(TimeUnit.SECONDS)).isEqualTo(2.0);
+        assertThat(meterRegistry.get("registers.kafka.poll.cut.short").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("registers.kafka.rebalance").tag("event", "assigned").counter().count())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("registers.kafka.rebalance").tag("event", "revoked").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldTimeOnlyTheFirstRecordFromJvmStart() {
+        // given
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+
+        // when
+        deltaMetrics.recordFailure(new RetryableException("retryable", null));
+        deltaMetrics.recordSuccess();
+
+        // then
+        Timer timer = meterRegistry.get("registers.startup.first.record").timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(sinceJvmStart);
+    }
+
+    @Test
+    void shouldCountOutcomesByRetryability() {
+        // given
+        Exception retryable = new ListenerExecutionFailedException("failed", new RetryableException("retryable", null));
+        Exception nonRetryable = new CompletionException(new NonRetryableException("non-retryable"));
+
+        // when
+        deltaMetrics.recordSuccess();
+        deltaMetrics.recordFailure(retryable);
+        deltaMetrics.recordFailure(nonRetryable);
+        deltaMetrics.recordFailure(new IllegalStateException());
+
+        // then
+        assertThat(meterRegistry.get("registers.delta.outcome").tag("outcome", "success").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("registers.delta.outcome").tag("outcome", "retryable").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("registers.delta.outcome").tag("outcome", "non_retryable").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountSkippedDeltasByReason() {
+        // when
+        deltaMetrics.recordSkipped(DeltaMetrics.SkipReason.UNCHANGED);
+        deltaMetrics.recordSkipped(DeltaMetrics.SkipReason.UNCHANGED);
+        deltaMetrics.recordSkipped(DeltaMetrics.SkipReason.STALE);
+
+        // then
+        assertThat(meterRegistry.get("registers.delta.skipped").tag("reason", "unchanged").counter().count())
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("registers.delta.skipped").tag("reason", "stale").counter().count())
+                .isEqualTo(1);
+    }
+}
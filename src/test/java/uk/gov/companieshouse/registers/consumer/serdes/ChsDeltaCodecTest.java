@@ -0,0 +1,68 @@
+package uk.gov.companieshouse.registers.consumer.serdes;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CompletableFuture;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.delta.ChsDelta;
+
+class ChsDeltaCodecTest {
+
+    @Test
+    void shouldShareReaderAndWriter() {
+        assertThat(ChsDeltaCodec.reader(), is(sameInstance(ChsDeltaCodec.reader())));
+        assertThat(ChsDeltaCodec.writer(), is(sameInstance(ChsDeltaCodec.writer())));
+    }
+
+    @Test
+    void shouldReuseDecoderAndEncoderWithinThread() {
+        // given
+        BinaryDecoder decoder = ChsDeltaCodec.decoder(new byte[0]);
+        BinaryEncoder encoder = ChsDeltaCodec.encoder(new ByteArrayOutputStream());
+
+        // when
+        BinaryDecoder nextDecoder = ChsDeltaCodec.decoder(new byte[0]);
+        BinaryEncoder nextEncoder = ChsDeltaCodec.encoder(new ByteArrayOutputStream());
+
+        // then
+        assertThat(nextDecoder, is(sameInstance(decoder)));
+        assertThat(nextEncoder, is(sameInstance(encoder)));
+    }
+
+    @Test
+    void shouldNotShareDecoderBetweenThreads() throws Exception {
+        // given
+        BinaryDecoder decoder = ChsDeltaCodec.decoder(new byte[0]);
+
+        // when
+        BinaryDecoder otherThreadDecoder = CompletableFuture.supplyAsync(() -> ChsDeltaCodec.decoder(new byte[0]))
+                .get();
+
+        // then
+        assertThat(otherThreadDecoder, is(not(sameInstance(decoder))));
+    }
+
+    @Test
+    void shouldRoundTripChsDeltaWithReusedCodecs() {
+        // given
+        ChsDeltaSerialiser serialiser = new ChsDeltaSerialiser();
+        ChsDeltaDeserialiser deserialiser = new ChsDeltaDeserialiser();
+        ChsDelta first = new ChsDelta("{\"first\": true}", 0, "context_id", false);
+        ChsDelta second = new ChsDelta("{}", 1, "other_context_id", true);
+
+        // when
+        ChsDelta actualFirst = deserialiser.deserialize("topic", serialiser.serialize("topic", first));
+        ChsDelta actualSecond = deserialiser.deserialize("topic", serialiser.serialize("topic", second));
+
+        // then
+        assertThat(actualFirst, is(equalTo(first)));
+        assertThat(actualSecond, is(equalTo(second)));
+    }
+}
@@ -0,0 +1,67 @@
+package uk.gov.companieshouse.registers.consumer.serdes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DeltaFieldsTest {
+
+    private final JsonFactory factory = new JsonFactory();
+
+    @Test
+    void shouldReadTopLevelStringsInRequestedOrder() {
+        // given
+        String data = """
+                {"directors": {"items": [{"company_number": "nested"}]}, "delta_at": "1", "company_number": "12345678"}
+                """;
+
+        // when
+        String[] actual = DeltaFields.readStrings(factory, data, "company_number", "delta_at");
+
+        // then
+        assertThat(actual).containsExactly("12345678", "1");
+    }
+
+    @Test
+    void shouldReturnNullForMissingAndNonStringFields() {
+        // given
+        String data = """
+                {"company_number": 12345678, "delta_at": "1"}
+                """;
+
+        // when
+        String[] actual = DeltaFields.readStrings(factory, data, "company_number", "delta_at", "kind");
+
+        // then
+        assertThat(actual).containsExactly(null, "1", null);
+    }
+
+    @Test
+    void shouldStopReadingOnceAllFieldsAreFound() {
+        // given
+        String data = """
+                {"company_number": "12345678", "rest": not json
+                """;
+
+        // when
+        String[] actual = DeltaFields.readStrings(factory, data, "company_number");
+
+        // then
+        assertThat(actual).containsExactly("12345678");
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "not json", "[]", "{\"delta_at\": \"1\", \"company_number\": "})
+    void shouldReturnNullsWhenDeltaCannotBeRead(String data) {
+        // when
+        String[] actual = DeltaFields.readStrings(factory, data, "company_number", "delta_at");
+
+        // then
+        assertThat(actual).containsExactly(null, null);
+    }
+}
@@ -1,7 +1,9 @@
 package uk.gov.companieshouse.registers.consumer.serdes;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -12,12 +14,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.companieshouse.api.delta.RegisterDelta;
 import uk.gov.companieshouse.api.delta.RegistersDeleteDelta;
 import uk.gov.companieshouse.registers.consumer.exception.NonRetryableException;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.Stage;
 
 @ExtendWith(MockitoExtension.class)
 class RegistersDeltaDeserialiserTest {
@@ -29,6 +36,8 @@ class RegistersDeltaDeserialiserTest {
     @Mock
     private ObjectMapper objectMapper;
     @Mock
+    private DeltaMetrics deltaMetrics;
+    @Mock
     private RegisterDelta expectedDelta;
     @Mock
     private RegistersDeleteDelta expectedDeleteDelta;
@@ -44,6 +53,7 @@ class RegistersDeltaDeserialiserTest {
         // then
         assertEquals(expectedDelta, actual);
         verify(objectMapper).readValue(REGISTERS_DELTA, RegisterDelta.class);
+        verify(deltaMetrics).recordStage(eq(Stage.JSON_DECODE), anyLong());
     }
 
     @Test
@@ -89,4 +99,32 @@ class RegistersDeltaDeserialiserTest {
         assertEquals("Unable to deserialise DELETE delta", actual.getMessage());
         verify(objectMapper).readValue(REGISTERS_DELETE_DELTA, RegistersDeleteDelta.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldReadCompanyNumberWithoutDeserialisingDelta() {
+        // given
+        RegistersDeltaDeserialiser streamingDeserialiser = new RegistersDeltaDeserialiser(new ObjectMapper(), deltaMetrics);
+        String data = """
+                {"directors": {"items": [{"company_number": "nested"}]}, "company_number": "12345678", "delta_at": "1"}                """;
+
+        // when
+        String actual = streamingDeserialiser.readCompanyNumber(data);
+
+        // then
+        assertEquals("12345678", actual);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "not json", "[]", "{\"company_number\": 12345678}", "{\"delta_at\": \"1\"}"})
+    void shouldReturnNullWhenCompanyNumberCannotBeRead(String data) {
+        // given
+        RegistersDeltaDeserialiser streamingDeserialiser = new RegistersDeltaDeserialiser(new ObjectMapper(), deltaMetrics);
+
+        // when
+        String actual = streamingDeserialiser.readCompanyNumber(data);
+
+        // then
+        assertNull(actual);
+    }
+}
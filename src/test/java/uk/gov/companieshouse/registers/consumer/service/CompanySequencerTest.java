@@ -0,0 +1,126 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+
+class CompanySequencerTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+
+    private final CompanySequencer sequencer = new CompanySequencer();
+
+    @AfterEach
+    void tearDown() {
+        DataMapHolder.clear();
+    }
+
+    @Test
+    void shouldStartTaskForSameCompanyOnlyAfterPreviousCompletes() throws Exception {
+        // given
+        List<String> started = new ArrayList<>();
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        sequencer.submit(COMPANY_NUMBER, () -> {
+            started.add("first");
+            return first;
+        });
+
+        // when
+        CompletableFuture<Void> second = sequencer.submit(COMPANY_NUMBER, () -> {
+            started.add("second");
+            return CompletableFuture.completedFuture(null);
+        });
+
+        // then
+        assertThat(started).containsExactly("first");
+        first.complete(null);
+        second.get();
+        assertThat(started).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldStartNextTaskForSameCompanyAfterFailure() throws Exception {
+        // given
+        CompletableFuture<Void> first = sequencer.submit(COMPANY_NUMBER,
+                () -> CompletableFuture.failedFuture(new RetryableException("retryable", null)));
+
+        // when
+        CompletableFuture<Void> second = sequencer.submit(COMPANY_NUMBER,
+                () -> CompletableFuture.completedFuture(null));
+
+        // then
+        assertThat(first).isCompletedExceptionally();
+        second.get();
+    }
+
+    @Test
+    void shouldNotWaitForTasksOfOtherCompanies() {
+        // given
+        sequencer.submit(COMPANY_NUMBER, CompletableFuture::new);
+
+        // when
+        CompletableFuture<Void> actual = sequencer.submit("87654321", () -> CompletableFuture.completedFuture(null));
+
+        // then
+        assertThat(actual).isCompleted();
+    }
+
+    @Test
+    void shouldNotOrderTasksWithoutCompanyNumber() {
+        // given
+        sequencer.submit(null, CompletableFuture::new);
+
+        // when
+        CompletableFuture<Void> actual = sequencer.submit(null, () -> CompletableFuture.completedFuture(null));
+
+        // then
+        assertThat(actual).isCompleted();
+    }
+
+    @Test
+    void shouldCompleteWithUnwrappedException() {
+        // given
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        sequencer.submit(COMPANY_NUMBER, () -> first);
+        CompletableFuture<Void> actual = sequencer.submit(COMPANY_NUMBER,
+                () -> CompletableFuture.failedFuture(new CompletionException(new RetryableException("retryable", null))));
+
+        // when
+        first.complete(null);
+
+        // then
+        assertThatThrownBy(actual::get)
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(RetryableException.class);
+    }
+
+    @Test
+    void shouldHandOverLogContextToDeferredTask() throws Exception {
+        // given
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        sequencer.submit(COMPANY_NUMBER, () -> first);
+        DataMapHolder.initialise("second_request_id");
+        List<String> requestIds = new ArrayList<>();
+        CompletableFuture<Void> second = sequencer.submit(COMPANY_NUMBER, () -> {
+            requestIds.add(DataMapHolder.getRequestId());
+            return CompletableFuture.completedFuture(null);
+        });
+        DataMapHolder.clear();
+
+        // when
+        CompletableFuture.runAsync(() -> first.complete(null)).get();
+
+        // then
+        second.get();
+        assertThat(requestIds).containsExactly("second_request_id");
+    }
+}
@@ -0,0 +1,216 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.registers.InternalData;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.api.registers.RegisterListDirectors;
+import uk.gov.companieshouse.api.registers.RegisteredItems;
+import uk.gov.companieshouse.api.registers.RegisteredItems.RegisterMovedToEnum;
+import uk.gov.companieshouse.api.registers.Registers;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+class ContentFingerprintCacheTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final TopicPartition PARTITION = new TopicPartition("registers-delta", 0);
+
+    private ContentFingerprintCache cache;
+    private DeltaStateStore store;
+    private SimpleMeterRegistry meterRegistry;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        objectMapper = new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .registerModule(new JavaTimeModule());
+        store = new InMemoryDeltaStateStore(2);
+        cache = new ContentFingerprintCache(60_000L, objectMapper, store, meterRegistry);
+    }
+
+    @Test
+    void shouldIgnoreInternalDataInFingerprint() {
+        // given
+        InternalRegisters first = request("2023-10-30", "2023-10-30T11:18:06Z");
+        InternalRegisters reEmitted = request("2023-10-30", "2023-10-31T09:00:00Z");
+
+        // when
+        Fingerprint expected = cache.fingerprint(first);
+        Fingerprint actual = cache.fingerprint(reEmitted);
+
+        // then
+        assertThat(actual).isNotNull().isEqualTo(expected);
+    }
+
+    @Test
+    void shouldChangeFingerprintWhenRegistersChange() {
+        // given
+        InternalRegisters first = request("2023-10-30", "2023-10-30T11:18:06Z");
+        InternalRegisters moved = request("2023-10-31", "2023-10-31T09:00:00Z");
+
+        // when
+        Fingerprint expected = cache.fingerprint(first);
+        Fingerprint actual = cache.fingerprint(moved);
+
+        // then
+        assertThat(actual).isNotEqualTo(expected);
+    }
+
+    @Test
+    void shouldSkipUpsertUnchangedSinceLastApplied() {
+        // given
+        Fingerprint fingerprint = cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z"));
+        cache.applied(COMPANY_NUMBER, fingerprint, PARTITION);
+
+        // when
+        boolean actual = cache.isUnchanged(COMPANY_NUMBER,
+                cache.fingerprint(request("2023-10-30", "2023-10-31T09:00:00Z")));
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(meterRegistry.get("registers.delta.duplicate.skipped").counter().count()).isOne();
+        assertThat(meterRegistry.get("registers.delta.fingerprint.cache").tag("result", "hit")
+                .counter().count()).isOne();
+    }
+
+    @Test
+    void shouldNotSkipChangedUpsertOrUnknownCompany() {
+        // given
+        cache.applied(COMPANY_NUMBER, cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z")), PARTITION);
+        Fingerprint changed = cache.fingerprint(request("2023-10-31", "2023-10-31T09:00:00Z"));
+
+        // when
+        boolean changedContent = cache.isUnchanged(COMPANY_NUMBER, changed);
+        boolean unknownCompany = cache.isUnchanged("87654321", changed);
+
+        // then
+        assertThat(changedContent).isFalse();
+        assertThat(unknownCompany).isFalse();
+        assertThat(meterRegistry.get("registers.delta.duplicate.skipped").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldNotSkipAfterInvalidateOrClear() {
+        // given
+        Fingerprint fingerprint = cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z"));
+        cache.applied(COMPANY_NUMBER, fingerprint, PARTITION);
+        cache.applied("87654321", fingerprint, PARTITION);
+
+        // when
+        cache.invalidate(COMPANY_NUMBER);
+        boolean invalidated = cache.isUnchanged(COMPANY_NUMBER, fingerprint);
+        boolean retained = cache.isUnchanged("87654321", fingerprint);
+        cache.clear(List.of(PARTITION));
+        boolean cleared = cache.isUnchanged("87654321", fingerprint);
+
+        // then
+        assertThat(invalidated).isFalse();
+        assertThat(retained).isTrue();
+        assertThat(cleared).isFalse();
+    }
+
+    @Test
+    void shouldKeepFingerprintsFromPartitionsStillOwnedWhenOthersAreRevoked() {
+        // given
+        store = new InMemoryDeltaStateStore(3);
+        cache = new ContentFingerprintCache(60_000L, objectMapper, store, meterRegistry);
+        TopicPartition owned = new TopicPartition("registers-delta", 1);
+        Fingerprint fingerprint = cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z"));
+        cache.applied(COMPANY_NUMBER, fingerprint, PARTITION);
+        cache.applied("87654321", fingerprint, owned);
+        cache.applied("11111111", fingerprint, null);
+
+        // when
+        cache.clear(List.of(PARTITION));
+
+        // then
+        assertThat(cache.isUnchanged(COMPANY_NUMBER, fingerprint)).isFalse();
+        assertThat(cache.isUnchanged("87654321", fingerprint)).isTrue();
+        assertThat(cache.isUnchanged("11111111", fingerprint)).isFalse();
+    }
+
+    @Test
+    void shouldNotVisitStoreWhenPartitionsAreRevoked() {
+        // given
+        DeltaStateStore mockStore = mock(DeltaStateStore.class);
+        cache = new ContentFingerprintCache(60_000L, objectMapper, mockStore, meterRegistry);
+
+        // when
+        cache.clear(List.of(PARTITION));
+
+        // then
+        verifyNoInteractions(mockStore);
+    }
+
+    @Test
+    void shouldSkipAgainOnceFingerprintIsAppliedAfterRevoke() throws InterruptedException {
+        // given
+        Fingerprint fingerprint = cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z"));
+        cache.applied(COMPANY_NUMBER, fingerprint, PARTITION);
+        cache.clear(List.of(PARTITION));
+        Thread.sleep(2L);
+
+        // when
+        cache.applied(COMPANY_NUMBER, fingerprint, PARTITION);
+
+        // then
+        assertThat(cache.isUnchanged(COMPANY_NUMBER, fingerprint)).isTrue();
+    }
+
+    @Test
+    void shouldNotSkipOnceFingerprintHasExpired() {
+        // given
+        Fingerprint fingerprint = cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z"));
+        store.update(COMPANY_NUMBER, state -> state.withFingerprint(fingerprint, 1L, 7));
+
+        // when
+        boolean actual = cache.isUnchanged(COMPANY_NUMBER, fingerprint);
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(meterRegistry.get("registers.delta.fingerprint.cache").tag("result", "miss")
+                .counter().count()).isOne();
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // given
+        cache = new ContentFingerprintCache(0L, objectMapper, store, new SimpleMeterRegistry());
+
+        // when
+        Fingerprint actual = cache.fingerprint(request("2023-10-30", "2023-10-30T11:18:06Z"));
+        cache.applied(COMPANY_NUMBER, actual, PARTITION);
+
+        // then
+        assertThat(actual).isNull();
+        assertThat(cache.isUnchanged(COMPANY_NUMBER, actual)).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    private static InternalRegisters request(String movedOn, String deltaAt) {
+        return new InternalRegisters()
+                .externalData(new Registers()
+                        .directors(new RegisterListDirectors()
+                                .registerType(RegisterListDirectors.RegisterTypeEnum.DIRECTORS)
+                                .items(List.of(new RegisteredItems()
+                                        .movedOn(LocalDate.parse(movedOn))
+                                        .registerMovedTo(RegisterMovedToEnum.PUBLIC_REGISTER)))))
+                .internalData(new InternalData()
+                        .deltaAt(OffsetDateTime.parse(deltaAt))
+                        .updatedBy("context_id"));
+    }
+}
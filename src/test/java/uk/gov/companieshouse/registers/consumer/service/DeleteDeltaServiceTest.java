@@ -2,8 +2,10 @@ package uk.gov.companieshouse.registers.consumer.service;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.OffsetDateTime;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -12,6 +14,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.companieshouse.api.delta.RegistersDeleteDelta;
 import uk.gov.companieshouse.delta.ChsDelta;
 import uk.gov.companieshouse.registers.consumer.apiclient.RegistersApiClient;
+import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.SkipReason;
 import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
 
 @ExtendWith(MockitoExtension.class)
@@ -19,6 +25,8 @@ class DeleteDeltaServiceTest {
 
     private static final String COMPANY_NUMBER = "12345678";
     private static final String DELTA_DATA = "delta";
+    private static final String DELTA_AT = "20231030111806123456";
+    private static final OffsetDateTime PARSED_DELTA_AT = OffsetDateTime.parse("2023-10-30T11:18:06.123456Z");
 
     @InjectMocks
     private DeleteDeltaService service;
@@ -27,6 +35,14 @@ class DeleteDeltaServiceTest {
     @Mock
     private RegistersApiClient apiClient;
     @Mock
+    private InternalRegistersMapper mapper;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+    @Mock
+    private StaleDeltaCache staleDeltaCache;
+    @Mock
+    private ContentFingerprintCache fingerprintCache;
+    @Mock
     private RegistersDeleteDelta delta;
 
     @Test
@@ -43,5 +59,46 @@ class DeleteDeltaServiceTest {
         // then
         verify(deserialiser).deserialiseRegistersDeleteDelta(DELTA_DATA);
         verify(apiClient).deleteRegisters(COMPANY_NUMBER);
+        verify(fingerprintCache).invalidate(COMPANY_NUMBER);
+        verifyNoInteractions(deltaMetrics);
+    }
+
+    @Test
+    void shouldRecordFreshnessOfAppliedDeleteDelta() {
+        // given
+        when(deserialiser.deserialiseRegistersDeleteDelta(any())).thenReturn(delta);
+        when(delta.getCompanyNumber()).thenReturn(COMPANY_NUMBER);
+        when(delta.getDeltaAt()).thenReturn(DELTA_AT);
+        when(mapper.mapDeltaAt(any())).thenReturn(PARSED_DELTA_AT);
+
+        ChsDelta chsDelta = new ChsDelta(DELTA_DATA, 0, "contextId", true);
+
+        // when
+        service.process(chsDelta);
+
+        // then
+        verify(apiClient).deleteRegisters(COMPANY_NUMBER);
+        verify(mapper).mapDeltaAt(DELTA_AT);
+        verify(deltaMetrics).recordFreshness(ApiOperation.DELETE, PARSED_DELTA_AT);
+        verify(staleDeltaCache).applied(COMPANY_NUMBER, DELTA_AT);
+    }
+
+    @Test
+    void shouldSkipDeleteDeltaOlderThanOneAlreadyApplied() {
+        // given
+        when(deserialiser.deserialiseRegistersDeleteDelta(any())).thenReturn(delta);
+        when(delta.getCompanyNumber()).thenReturn(COMPANY_NUMBER);
+        when(delta.getDeltaAt()).thenReturn(DELTA_AT);
+        when(staleDeltaCache.isStale(any(), any())).thenReturn(true);
+
+        ChsDelta chsDelta = new ChsDelta(DELTA_DATA, 0, "contextId", true);
+
+        // when
+        service.process(chsDelta);
+
+        // then
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, DELTA_AT);
+        verifyNoInteractions(apiClient);
+        verify(deltaMetrics).recordSkipped(SkipReason.STALE);
     }
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+class InMemoryDeltaStateStoreTest {
+
+    private static final String DELTA_AT = "20231030111806123456";
+    private static final Fingerprint FINGERPRINT = new Fingerprint(1L, 2L);
+
+    private InMemoryDeltaStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryDeltaStateStore(2);
+    }
+
+    @Test
+    void shouldUpdateStateFromEmpty() {
+        // when
+        store.update("00000001", state -> state.withDeltaAt(DELTA_AT, 10L));
+        store.update("00000001", state -> state.withFingerprint(FINGERPRINT, 20L, 7));
+
+        // then
+        assertThat(store.get("00000001")).isEqualTo(new DeltaState(DELTA_AT, 10L, FINGERPRINT, 20L, 7));
+        assertThat(store.get("00000002")).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedCompanyOverMaxSize() {
+        // given
+        store.update("00000001", state -> state.withDeltaAt(DELTA_AT, 10L));
+        store.update("00000002", state -> state.withDeltaAt(DELTA_AT, 10L));
+        store.get("00000001");
+
+        // when
+        store.update("00000003", state -> state.withDeltaAt(DELTA_AT, 10L));
+
+        // then
+        assertThat(store.get("00000002")).isNull();
+        assertThat(store.get("00000001")).isNotNull();
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepNothingWhenDisabled() {
+        // given
+        store = new InMemoryDeltaStateStore(0);
+
+        // when
+        store.update("00000001", state -> state.withDeltaAt(DELTA_AT, 10L));
+
+        // then
+        assertThat(store.get("00000001")).isNull();
+        assertThat(store.size()).isZero();
+    }
+}
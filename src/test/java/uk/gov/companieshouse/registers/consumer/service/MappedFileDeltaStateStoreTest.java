@@ -0,0 +1,112 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+class MappedFileDeltaStateStoreTest {
+
+    private static final String COMPANY_NUMBER = "SC123456";
+    private static final String DELTA_AT = "20231030111806123456";
+    private static final Fingerprint FINGERPRINT = new Fingerprint(-1L, 2L);
+
+    @TempDir
+    private Path directory;
+
+    private MappedFileDeltaStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new MappedFileDeltaStateStore(directory, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void shouldUpdateStateFromEmpty() {
+        // when
+        store.update(COMPANY_NUMBER, state -> state.withDeltaAt(DELTA_AT, 10L));
+        store.update(COMPANY_NUMBER, state -> state.withFingerprint(FINGERPRINT, 20L, 7));
+
+        // then
+        assertThat(store.get(COMPANY_NUMBER)).isEqualTo(new DeltaState(DELTA_AT, 10L, FINGERPRINT, 20L, 7));
+        assertThat(store.get("00000001")).isNull();
+        assertThat(store.size()).isOne();
+    }
+
+    @Test
+    void shouldKeepDeltaAtButNotFingerprintsAcrossRestart() {
+        // given
+        store.update(COMPANY_NUMBER, state -> state.withDeltaAt(DELTA_AT, 10L).withFingerprint(FINGERPRINT, 20L, 7));
+        store.close();
+
+        // when
+        store = new MappedFileDeltaStateStore(directory, 100);
+
+        // then
+        assertThat(store.get(COMPANY_NUMBER)).isEqualTo(new DeltaState(DELTA_AT, 10L, null, 0L, 0));
+        assertThat(store.size()).isOne();
+    }
+
+    @Test
+    void shouldStartAfreshWhenSizeChanges() {
+        // given
+        store.update(COMPANY_NUMBER, state -> state.withDeltaAt(DELTA_AT, 10L));
+        store.close();
+
+        // when
+        store = new MappedFileDeltaStateStore(directory, 1000);
+
+        // then
+        assertThat(store.get(COMPANY_NUMBER)).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyWrittenCompanyWhenFull() {
+        // given
+        store.close();
+        store = new MappedFileDeltaStateStore(directory, 1);
+        store.update("00000001", state -> state.withDeltaAt(DELTA_AT, 10L));
+        store.update("00000002", state -> state.withDeltaAt(DELTA_AT, 30L));
+
+        // when
+        store.update("00000003", state -> state.withDeltaAt(DELTA_AT, 20L));
+
+        // then
+        assertThat(store.get("00000001")).isNull();
+        assertThat(store.get("00000002")).isNotNull();
+        assertThat(store.get("00000003")).isEqualTo(new DeltaState(DELTA_AT, 20L, null, 0L, 0));
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "123456789", "1234 678"})
+    void shouldIgnoreCompanyNumberThatCannotBeKeyed(String companyNumber) {
+        // when
+        store.update(companyNumber, state -> state.withDeltaAt(DELTA_AT, 10L));
+
+        // then
+        assertThat(store.get(companyNumber)).isNull();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void shouldRefuseStoreAlreadyInUse() {
+        assertThatThrownBy(() -> new MappedFileDeltaStateStore(directory, 100))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,246 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.api.delta.RegistersDeleteDelta;
+import uk.gov.companieshouse.api.registers.InternalData;
+import uk.gov.companieshouse.api.registers.InternalRegisters;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.apiclient.AsyncRegistersApiClient;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsert;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsertDecoder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.SkipReason;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+@ExtendWith(MockitoExtension.class)
+class NonBlockingDeltaServiceRouterTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String RAW_DELTA_AT = "20231030111806123456";
+    private static final OffsetDateTime DELTA_AT = OffsetDateTime.parse("2023-10-30T11:18:06.123456Z");
+    private static final Fingerprint FINGERPRINT = new Fingerprint(1L, 2L);
+    private static final TopicPartition SOURCE = new TopicPartition("registers-delta", 0);
+
+    private NonBlockingDeltaServiceRouter router;
+    @Mock
+    private RegistersDeltaDeserialiser deserialiser;
+    @Mock
+    private RegistersUpsertDecoder decoder;
+    @Mock
+    private InternalRegistersMapper mapper;
+    @Mock
+    private AsyncRegistersApiClient apiClient;
+    @Mock
+    private DeltaMetrics deltaMetrics;
+    @Mock
+    private StaleDeltaCache staleDeltaCache;
+    @Mock
+    private ContentFingerprintCache fingerprintCache;
+
+    @Mock
+    private RegistersDeleteDelta deleteDelta;
+    @Mock
+    private InternalRegisters apiRequest;
+
+    @BeforeEach
+    void setUp() {
+        router = new NonBlockingDeltaServiceRouter(deserialiser, decoder, mapper, apiClient, new CompanySequencer(),
+                deltaMetrics, staleDeltaCache, fingerprintCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataMapHolder.clear();
+    }
+
+    @Test
+    void shouldPassDeserialisedAndMappedDeltaToApiClient() {
+        // given
+        DataMapHolder.get().topic(SOURCE.topic()).partition(SOURCE.partition());
+        CompletableFuture<Void> response = new CompletableFuture<>();
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(apiRequest.getInternalData()).thenReturn(new InternalData().deltaAt(DELTA_AT));
+        when(fingerprintCache.fingerprint(any())).thenReturn(FINGERPRINT);
+        when(apiClient.upsertRegisters(any(), any())).thenReturn(response);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        assertThat(actual).isNotDone();
+        verify(deltaMetrics, never()).recordFreshness(any(), any());
+        verify(staleDeltaCache, never()).applied(any(), any());
+        response.complete(null);
+        assertThat(actual).isCompleted();
+        verify(decoder).decode("delta", "contextId");
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, RAW_DELTA_AT);
+        verify(fingerprintCache).isUnchanged(COMPANY_NUMBER, FINGERPRINT);
+        verify(apiClient).upsertRegisters(COMPANY_NUMBER, apiRequest);
+        verify(staleDeltaCache).applied(COMPANY_NUMBER, RAW_DELTA_AT);
+        verify(fingerprintCache).applied(COMPANY_NUMBER, FINGERPRINT, SOURCE);
+        verify(deltaMetrics).recordFreshness(ApiOperation.UPSERT, DELTA_AT);
+    }
+
+    @Test
+    void shouldCompleteWithUnwrappedFailureAndNotRecordFreshness() {
+        // given
+        RetryableException failure = new RetryableException("retryable", null);
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(apiRequest.getInternalData()).thenReturn(new InternalData().deltaAt(DELTA_AT));
+        when(apiClient.upsertRegisters(any(), any())).thenReturn(CompletableFuture.failedFuture(failure));
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        assertThat(actual).isCompletedExceptionally();
+        assertThat(actual.exceptionNow()).isSameAs(failure);
+        verify(staleDeltaCache, never()).applied(any(), any());
+        verify(fingerprintCache, never()).applied(any(), any(), any());
+        verifyNoInteractions(deltaMetrics);
+    }
+
+    @Test
+    void shouldSkipUpsertOlderThanOneAlreadyApplied() {
+        // given
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(staleDeltaCache.isStale(any(), any())).thenReturn(true);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        assertThat(actual).isCompleted();
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, RAW_DELTA_AT);
+        verifyNoInteractions(fingerprintCache);
+        verifyNoInteractions(apiClient);
+        verify(deltaMetrics).recordSkipped(SkipReason.STALE);
+        verifyNoMoreInteractions(deltaMetrics);
+    }
+
+    @Test
+    void shouldSkipUpsertWithContentUnchangedSinceLastApplied() {
+        // given
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(fingerprintCache.fingerprint(any())).thenReturn(FINGERPRINT);
+        when(fingerprintCache.isUnchanged(any(), any())).thenReturn(true);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        assertThat(actual).isCompleted();
+        verify(fingerprintCache).isUnchanged(COMPANY_NUMBER, FINGERPRINT);
+        verify(fingerprintCache, never()).applied(any(), any(), any());
+        verify(staleDeltaCache, never()).applied(any(), any());
+        verifyNoInteractions(apiClient);
+        verify(deltaMetrics).recordSkipped(SkipReason.UNCHANGED);
+        verifyNoMoreInteractions(deltaMetrics);
+    }
+
+    @Test
+    void shouldCheckStalenessOnlyOncePreviousDeltaForCompanyHasCompleted() {
+        // given
+        CompletableFuture<Void> first = new CompletableFuture<>();
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(apiRequest.getInternalData()).thenReturn(new InternalData().deltaAt(DELTA_AT));
+        when(apiClient.upsertRegisters(any(), any())).thenReturn(first);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+        router.route(chsDelta);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, RAW_DELTA_AT);
+        when(staleDeltaCache.isStale(any(), any())).thenReturn(true);
+        first.complete(null);
+        assertThat(actual).isCompleted();
+        verify(apiClient).upsertRegisters(COMPANY_NUMBER, apiRequest);
+        verify(deltaMetrics).recordSkipped(SkipReason.STALE);
+    }
+
+    @Test
+    void shouldPassDeserialisedDeleteDeltaToApiClient() {
+        // given
+        CompletableFuture<Void> response = new CompletableFuture<>();
+        when(deserialiser.deserialiseRegistersDeleteDelta(any())).thenReturn(deleteDelta);
+        when(deleteDelta.getCompanyNumber()).thenReturn(COMPANY_NUMBER);
+        when(deleteDelta.getDeltaAt()).thenReturn(RAW_DELTA_AT);
+        when(mapper.mapDeltaAt(any())).thenReturn(DELTA_AT);
+        when(apiClient.deleteRegisters(any())).thenReturn(response);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", true);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        assertThat(actual).isNotDone();
+        verify(fingerprintCache).invalidate(COMPANY_NUMBER);
+        verify(staleDeltaCache, never()).applied(any(), any());
+        response.complete(null);
+        assertThat(actual).isCompleted();
+        verify(deserialiser).deserialiseRegistersDeleteDelta("delta");
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, RAW_DELTA_AT);
+        verify(apiClient).deleteRegisters(COMPANY_NUMBER);
+        verify(staleDeltaCache).applied(COMPANY_NUMBER, RAW_DELTA_AT);
+        verify(deltaMetrics).recordFreshness(ApiOperation.DELETE, DELTA_AT);
+    }
+
+    @Test
+    void shouldSkipDeleteOlderThanOneAlreadyApplied() {
+        // given
+        when(deserialiser.deserialiseRegistersDeleteDelta(any())).thenReturn(deleteDelta);
+        when(deleteDelta.getCompanyNumber()).thenReturn(COMPANY_NUMBER);
+        when(deleteDelta.getDeltaAt()).thenReturn(RAW_DELTA_AT);
+        when(staleDeltaCache.isStale(any(), any())).thenReturn(true);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", true);
+
+        // when
+        CompletableFuture<Void> actual = router.route(chsDelta);
+
+        // then
+        assertThat(actual).isCompleted();
+        verifyNoInteractions(fingerprintCache);
+        verifyNoInteractions(apiClient);
+        verify(deltaMetrics).recordSkipped(SkipReason.STALE);
+    }
+}
@@ -0,0 +1,155 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
+
+class StaleDeltaCacheTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String EARLIER = "20231030111806123456";
+    private static final String LATER = "20231030111806123457";
+
+    private StaleDeltaCache cache;
+    private DeltaStateStore store;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new InMemoryDeltaStateStore(2);
+        cache = new StaleDeltaCache(60_000L, store, meterRegistry);
+    }
+
+    @Test
+    void shouldSkipDeltaOlderThanOneAlreadyApplied() {
+        // given
+        cache.applied(COMPANY_NUMBER, LATER);
+
+        // when
+        boolean actual = cache.isStale(COMPANY_NUMBER, EARLIER);
+
+        // then
+        assertThat(actual).isTrue();
+        assertThat(lookups("hit")).isOne();
+        assertThat(meterRegistry.get("registers.delta.stale.skipped").counter().count()).isOne();
+    }
+
+    @Test
+    void shouldNotSkipRedeliveryOrLaterDelta() {
+        // given
+        cache.applied(COMPANY_NUMBER, EARLIER);
+
+        // when
+        boolean redelivery = cache.isStale(COMPANY_NUMBER, EARLIER);
+        boolean later = cache.isStale(COMPANY_NUMBER, LATER);
+
+        // then
+        assertThat(redelivery).isFalse();
+        assertThat(later).isFalse();
+        assertThat(lookups("hit")).isEqualTo(2);
+        assertThat(meterRegistry.get("registers.delta.stale.skipped").counter().count()).isZero();
+    }
+
+    @Test
+    void shouldKeepLatestAppliedDeltaAt() {
+        // given
+        cache.applied(COMPANY_NUMBER, LATER);
+        cache.applied(COMPANY_NUMBER, EARLIER);
+
+        // when
+        boolean actual = cache.isStale(COMPANY_NUMBER, EARLIER);
+
+        // then
+        assertThat(actual).isTrue();
+    }
+
+    @Test
+    void shouldMissForUnknownCompany() {
+        // when
+        boolean actual = cache.isStale(COMPANY_NUMBER, EARLIER);
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(lookups("miss")).isOne();
+    }
+
+    @Test
+    void shouldReportCompaniesInStore() {
+        // given
+        cache.applied("00000001", LATER);
+        cache.applied("00000002", LATER);
+
+        // when
+        double actual = meterRegistry.get("registers.delta.stale.cache.size").gauge().value();
+
+        // then
+        assertThat(actual).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldKeepDeltaAtAlongsideFingerprint() {
+        // given
+        Fingerprint fingerprint = new Fingerprint(1L, 2L);
+        store.update(COMPANY_NUMBER, state -> state.withFingerprint(fingerprint, 1L, 7));
+
+        // when
+        cache.applied(COMPANY_NUMBER, LATER);
+
+        // then
+        assertThat(store.get(COMPANY_NUMBER).deltaAt()).isEqualTo(LATER);
+        assertThat(store.get(COMPANY_NUMBER).fingerprint()).isEqualTo(fingerprint);
+    }
+
+    @Test
+    void shouldMissOnceEntryHasExpired() {
+        // given
+        store.update(COMPANY_NUMBER, state -> state.withDeltaAt(LATER, 0L));
+
+        // when
+        boolean actual = cache.isStale(COMPANY_NUMBER, EARLIER);
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(lookups("miss")).isOne();
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // given
+        cache = new StaleDeltaCache(0L, store, meterRegistry);
+        cache.applied(COMPANY_NUMBER, LATER);
+
+        // when
+        boolean actual = cache.isStale(COMPANY_NUMBER, EARLIER);
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {"", "2023103011180612345", "2023-10-30T11:18:06Z"})
+    void shouldNeverSkipDeltaAtThatCannotBeCompared(String deltaAt) {
+        // given
+        cache.applied(COMPANY_NUMBER, LATER);
+
+        // when
+        boolean actual = cache.isStale(COMPANY_NUMBER, deltaAt);
+
+        // then
+        assertThat(actual).isFalse();
+        assertThat(lookups("hit")).isZero();
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("registers.delta.stale.cache").tag("result", result).counter().count();
+    }
+}
@@ -2,46 +2,70 @@ package uk.gov.companieshouse.registers.consumer.service;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.OffsetDateTime;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import uk.gov.companieshouse.api.delta.RegisterDelta;
+import uk.gov.companieshouse.api.registers.InternalData;
 import uk.gov.companieshouse.api.registers.InternalRegisters;
 import uk.gov.companieshouse.delta.ChsDelta;
 import uk.gov.companieshouse.registers.consumer.apiclient.RegistersApiClient;
-import uk.gov.companieshouse.registers.consumer.mapper.InternalRegistersMapper;
-import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsert;
+import uk.gov.companieshouse.registers.consumer.mapper.RegistersUpsertDecoder;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.ApiOperation;
+import uk.gov.companieshouse.registers.consumer.metrics.DeltaMetrics.SkipReason;
+import uk.gov.companieshouse.registers.consumer.service.ContentFingerprintCache.Fingerprint;
 
 @ExtendWith(MockitoExtension.class)
 class UpsertDeltaServiceTest {
 
     private static final String COMPANY_NUMBER = "12345678";
+    private static final String RAW_DELTA_AT = "20231030111806123456";
+    private static final OffsetDateTime DELTA_AT = OffsetDateTime.parse("2023-10-30T11:18:06.123456Z");
+    private static final Fingerprint FINGERPRINT = new Fingerprint(1L, 2L);
+    private static final TopicPartition SOURCE = new TopicPartition("registers-delta", 0);
 
     @InjectMocks
     private UpsertDeltaService service;
     @Mock
-    private RegistersDeltaDeserialiser deserialiser;
-    @Mock
-    private InternalRegistersMapper mapper;
+    private RegistersUpsertDecoder decoder;
     @Mock
     private RegistersApiClient apiClient;
-
     @Mock
-    private RegisterDelta delta;
+    private DeltaMetrics deltaMetrics;
+    @Mock
+    private StaleDeltaCache staleDeltaCache;
+    @Mock
+    private ContentFingerprintCache fingerprintCache;
+
     @Mock
     private InternalRegisters apiRequest;
 
+    @AfterEach
+    void tearDown() {
+        DataMapHolder.clear();
+    }
+
     @Test
     void shouldSuccessfullyPassDeserialisedAndMappedDeltaToApiClient() {
         // given
-        when(deserialiser.deserialiseRegistersDelta(any())).thenReturn(delta);
-        when(delta.getCompanyNumber()).thenReturn(COMPANY_NUMBER);
-        when(mapper.mapInternalRegisters(any(), anyString())).thenReturn(apiRequest);
+        DataMapHolder.get().topic(SOURCE.topic()).partition(SOURCE.partition());
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(apiRequest.getInternalData()).thenReturn(new InternalData().deltaAt(DELTA_AT));
+        when(fingerprintCache.fingerprint(any())).thenReturn(FINGERPRINT);
 
         ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
 
@@ -49,8 +73,55 @@ class UpsertDeltaServiceTest {
         service.process(chsDelta);
 
         // then
-        verify(deserialiser).deserialiseRegistersDelta("delta");
-        verify(mapper).mapInternalRegisters(delta, "contextId");
+        verify(decoder).decode("delta", "contextId");
         verify(apiClient).upsertRegisters(COMPANY_NUMBER, apiRequest);
+        verify(deltaMetrics).recordFreshness(ApiOperation.UPSERT, DELTA_AT);
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, RAW_DELTA_AT);
+        verify(staleDeltaCache).applied(COMPANY_NUMBER, RAW_DELTA_AT);
+        verify(fingerprintCache).fingerprint(apiRequest);
+        verify(fingerprintCache).isUnchanged(COMPANY_NUMBER, FINGERPRINT);
+        verify(fingerprintCache).applied(COMPANY_NUMBER, FINGERPRINT, SOURCE);
+    }
+
+    @Test
+    void shouldSkipDeltaWithContentUnchangedSinceLastApplied() {
+        // given
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(fingerprintCache.fingerprint(any())).thenReturn(FINGERPRINT);
+        when(fingerprintCache.isUnchanged(any(), any())).thenReturn(true);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+
+        // when
+        service.process(chsDelta);
+
+        // then
+        verify(fingerprintCache).isUnchanged(COMPANY_NUMBER, FINGERPRINT);
+        verify(fingerprintCache, never()).applied(any(), any(), any());
+        verify(staleDeltaCache, never()).applied(any(), any());
+        verifyNoInteractions(apiClient);
+        verify(deltaMetrics).recordSkipped(SkipReason.UNCHANGED);
+        verifyNoMoreInteractions(deltaMetrics);
+    }
+
+    @Test
+    void shouldSkipDeltaOlderThanOneAlreadyApplied() {
+        // given
+        when(decoder.decode(any(), anyString()))
+                .thenReturn(new RegistersUpsert(COMPANY_NUMBER, RAW_DELTA_AT, apiRequest));
+        when(staleDeltaCache.isStale(any(), any())).thenReturn(true);
+
+        ChsDelta chsDelta = new ChsDelta("delta", 0, "contextId", false);
+
+        // when
+        service.process(chsDelta);
+
+        // then
+        verify(staleDeltaCache).isStale(COMPANY_NUMBER, RAW_DELTA_AT);
+        verifyNoInteractions(fingerprintCache);
+        verifyNoInteractions(apiClient);
+        verify(deltaMetrics).recordSkipped(SkipReason.STALE);
+        verifyNoMoreInteractions(deltaMetrics);
     }
 }
\ No newline at end of file
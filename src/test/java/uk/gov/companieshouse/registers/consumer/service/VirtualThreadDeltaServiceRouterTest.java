@@ -0,0 +1,122 @@
+package uk.gov.companieshouse.registers.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.delta.ChsDelta;
+import uk.gov.companieshouse.registers.consumer.exception.RetryableException;
+import uk.gov.companieshouse.registers.consumer.logging.DataMapHolder;
+import uk.gov.companieshouse.registers.consumer.serdes.RegistersDeltaDeserialiser;
+
+@ExtendWith(MockitoExtension.class)
+class VirtualThreadDeltaServiceRouterTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private VirtualThreadDeltaServiceRouter router;
+
+    @Mock
+    private DeltaServiceRouter deltaServiceRouter;
+    @Mock
+    private RegistersDeltaDeserialiser deserialiser;
+
+    @BeforeEach
+    void setUp() {
+        router = new VirtualThreadDeltaServiceRouter(deltaServiceRouter, deserialiser, new CompanySequencer(),
+                executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        DataMapHolder.clear();
+    }
+
+    @Test
+    void shouldRouteDeltaOnVirtualThreadWithLogContext() throws Exception {
+        // given
+        ChsDelta delta = new ChsDelta("delta", 0, "context_id", false);
+        when(deserialiser.readCompanyNumber("delta")).thenReturn(COMPANY_NUMBER);
+        DataMapHolder.initialise("context_id");
+        List<Boolean> virtual = new ArrayList<>();
+        List<String> requestIds = new ArrayList<>();
+        doAnswer(invocation -> {
+            virtual.add(Thread.currentThread().isVirtual());
+            requestIds.add(DataMapHolder.getRequestId());
+            return null;
+        }).when(deltaServiceRouter).route(delta);
+
+        // when
+        router.route(delta).get(5, TimeUnit.SECONDS);
+
+        // then
+        assertThat(virtual).containsExactly(true);
+        assertThat(requestIds).containsExactly("context_id");
+    }
+
+    @Test
+    void shouldRouteDeltasForSameCompanyInOrder() throws Exception {
+        // given
+        ChsDelta first = new ChsDelta("first", 0, "context_id", false);
+        ChsDelta second = new ChsDelta("second", 0, "context_id", false);
+        when(deserialiser.readCompanyNumber(any())).thenReturn(COMPANY_NUMBER);
+        CountDownLatch firstReleased = new CountDownLatch(1);
+        List<String> routed = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            ChsDelta delta = invocation.getArgument(0);
+            if (delta == first) {
+                firstReleased.await();
+            }
+            routed.add(delta.getData());
+            return null;
+        }).when(deltaServiceRouter).route(any());
+
+        // when
+        CompletableFuture<Void> firstResult = router.route(first);
+        CompletableFuture<Void> secondResult = router.route(second);
+
+        // then
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertThat(secondResult).isNotDone();
+        firstReleased.countDown();
+        CompletableFuture.allOf(firstResult, secondResult).get(5, TimeUnit.SECONDS);
+        assertThat(routed).containsExactly("first", "second");
+    }
+
+    @Test
+    void shouldCompleteWithExceptionThrownByRouter() {
+        // given
+        ChsDelta delta = new ChsDelta("delta", 0, "context_id", false);
+        when(deserialiser.readCompanyNumber("delta")).thenReturn(COMPANY_NUMBER);
+        doThrow(new RetryableException("retryable", null)).when(deltaServiceRouter).route(delta);
+
+        // when
+        CompletableFuture<Void> actual = router.route(delta);
+
+        // then
+        assertThatThrownBy(() -> actual.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(RetryableException.class);
+    }
+}